@@ -1,6 +1,8 @@
 package org.drooms.api;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Map;
@@ -22,6 +24,24 @@ public interface Game {
      */
     Playground buildPlayground(final String name, final InputStream source);
 
+    /**
+     * Build the playground from a file. Implementations may override this to read the file more efficiently than
+     * through {@link #buildPlayground(String, InputStream)}, which is what this method does by default.
+     *
+     * @param name
+     *            Name for the new playground.
+     * @param source
+     *            File in question.
+     * @return Playground constructed from that file.
+     */
+    default Playground buildPlayground(final String name, final File source) {
+        try (final InputStream is = new FileInputStream(source)) {
+            return this.buildPlayground(name, is);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Cannot read playground " + name, ex);
+        }
+    }
+
     /**
      * Add a custom listener to the game. Will be used next time {@link #play(Playground, Collection, File)} is called.
      * 
@@ -64,6 +84,23 @@ public interface Game {
      */
     boolean removeListener(GameProgressListener listener);
 
+    /**
+     * Sets the seed for all the randomness in this game. The same seed, the same context and the same decisions of the
+     * players will always result in the same game. When not set, a random seed will be chosen. Must be called before
+     * {@link #play(Playground, Collection, File)}.
+     *
+     * <p>
+     * The default implementation ignores the seed, so that games written before seeding existed keep working; such
+     * games can not be replayed.
+     * </p>
+     *
+     * @param seed
+     *            The seed.
+     */
+    default void setSeed(final long seed) {
+        // randomness of this game can not be controlled
+    }
+
     /**
      * Sets the context for this game. The context should provide properties
      * that the game should use to decide various situations.
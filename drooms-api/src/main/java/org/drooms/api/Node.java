@@ -5,6 +5,16 @@ package org.drooms.api;
  */
 public interface Node {
 
+    /**
+     * Dense identifier of the node within its {@link Playground}, suitable for indexing arrays.
+     *
+     * @return Between 0 (inclusive) and {@link Playground#getNodeCount()} (exclusive); -1 for nodes outside of the
+     *         playground, or those not created by one.
+     */
+    default int getId() {
+        return -1;
+    }
+
     Type getType();
 
     enum Type {
@@ -10,7 +10,7 @@ import java.util.List;
 public interface Playground {
 
     /**
-     * Return the playing field as a graph.
+     * Return the playing field as a graph. Walls are not part of the graph.
      * 
      * @return An unmodifiable graph representing the playing field.
      */
@@ -31,6 +31,43 @@ public interface Playground {
      */
     String getName();
 
+    /**
+     * Retrieve the number of neighbours of a node; that is, of nodes that can be reached from the node in one move.
+     *
+     * @param id
+     *            {@link Node#getId()} of the node in question.
+     * @return Number of neighbours, including the other end of a portal.
+     */
+    int getNeighbourCount(int id);
+
+    /**
+     * Retrieve a neighbour of a node. Together with {@link #getNeighbourCount(int)}, this allows for traversing the
+     * playground without going through {@link #getGraph()}.
+     *
+     * @param id
+     *            {@link Node#getId()} of the node in question.
+     * @param index
+     *            Index of the neighbour, from 0 (inclusive) to {@link #getNeighbourCount(int)} (exclusive).
+     * @return {@link Node#getId()} of the neighbour.
+     */
+    int getNeighbourId(int id, int index);
+
+    /**
+     * Retrieve a node by its identifier.
+     *
+     * @param id
+     *            {@link Node#getId()} of the node.
+     * @return The node.
+     */
+    Node getNodeById(int id);
+
+    /**
+     * Return the number of nodes in the playing field, walls included.
+     *
+     * @return Identifiers of all the nodes are lower than this number.
+     */
+    int getNodeCount();
+
     /**
      * Retrieve a node at the particular position.
      * 
@@ -0,0 +1,338 @@
+package org.drooms.util;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.core.common.ProjectClassLoader;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.conf.EventProcessingOption;
+import org.kie.api.runtime.KieContainer;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of compiled strategies. Every strategy kjar is only compiled once, no matter how many players,
+ * games or validators ask for it; {@link KieBase}s are thread-safe and can be shared freely.
+ *
+ * <p>
+ * Strategies are keyed by their Maven GAV. SNAPSHOT versions may change underneath us, therefore a checksum of the kjar
+ * becomes part of their key. The cache is bounded; the least recently used strategies are evicted first, except for
+ * those that have been {@link #pin(ReleaseId) pinned}. Maximum size can be set through the 'drooms.kiebase.cache.size'
+ * system property and defaults to 32.
+ * </p>
+ *
+ * <p>
+ * Compiled strategies are also kept in the {@link StrategyDiskCache}, so that they need not be compiled again when the
+ * JVM is restarted.
+ * </p>
+ */
+public class KieBaseCache {
+
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private static final KieBaseCache INSTANCE = new KieBaseCache(Integer.getInteger("drooms.kiebase.cache.size", 32));
+
+    /**
+     * Return the single process-wide instance of this class.
+     *
+     * @return The instance.
+     */
+    public static KieBaseCache getInstance() {
+        return KieBaseCache.INSTANCE;
+    }
+
+    private static boolean isSnapshot(final ReleaseId releaseId) {
+        return releaseId.getVersion().trim().endsWith(KieBaseCache.SNAPSHOT_SUFFIX);
+    }
+
+    private static KieModule getModule(final ReleaseId releaseId) {
+        return KieServices.Factory.get().getRepository().getKieModule(releaseId);
+    }
+
+    static String getKey(final ReleaseId releaseId) {
+        return KieBaseCache.getKey(releaseId, KieBaseCache.isSnapshot(releaseId) ? StrategyDiskCache.getChecksum
+                (KieBaseCache.getModule(releaseId)) : null);
+    }
+
+    private static String getKey(final ReleaseId releaseId, final String checksum) {
+        final String gav = releaseId.getGroupId().trim() + ":" + releaseId.getArtifactId().trim() + ":" +
+                releaseId.getVersion().trim();
+        if (KieBaseCache.isSnapshot(releaseId)) {
+            return gav + "#" + (checksum == null ? "unknown" : checksum);
+        } else {
+            return gav;
+        }
+    }
+
+    /**
+     * Load the classes of a kjar the same way that a {@link KieContainer} would, without building the container.
+     */
+    private static ClassLoader getClassLoader(final KieModule module) {
+        final ProjectClassLoader classLoader = ProjectClassLoader.createProjectClassLoader(KieBaseCache.class
+                .getClassLoader());
+        classLoader.storeClasses(((InternalKieModule) module).getClassesMap(true));
+        return classLoader;
+    }
+
+    private final Map<String, Future<KieBase>> kieBases;
+    private final Set<String> pinned = new HashSet<>();
+    private final StrategyDiskCache disk;
+    private final AtomicLong diskHits = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong compilationTime = new AtomicLong(0);
+
+    KieBaseCache(final int maxSize) {
+        this(maxSize, StrategyDiskCache.getInstance());
+    }
+
+    KieBaseCache(final int maxSize, final StrategyDiskCache disk) {
+        this.disk = disk;
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache must be able to hold at least one strategy.");
+        }
+        this.kieBases = new LinkedHashMap<String, Future<KieBase>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Future<KieBase>> eldest) {
+                if (this.size() <= maxSize) {
+                    return false;
+                }
+                // evict the least recently used strategy that is not pinned, if any
+                final Iterator<String> keys = this.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (!KieBaseCache.this.pinned.contains(keys.next())) {
+                        keys.remove();
+                        break;
+                    }
+                }
+                return false;
+            }
+
+        };
+    }
+
+    /**
+     * Forget all the compiled strategies, including the pinned ones. Counters are left intact.
+     */
+    public void clear() {
+        synchronized (this.kieBases) {
+            this.pinned.clear();
+            this.kieBases.clear();
+        }
+    }
+
+    /**
+     * Compile the strategy, or load it from the disk.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @param module
+     *            Its kjar, if already resolved. Null otherwise.
+     * @param checksum
+     *            Checksum of the kjar, if already calculated. Null otherwise.
+     * @return The compiled strategy.
+     */
+    KieBase compile(final ReleaseId releaseId, final KieModule module, final String checksum) {
+        final long start = System.nanoTime();
+        try {
+            String diskKey = null;
+            if (this.disk.isEnabled()) {
+                // the kjar is resolved and hashed only once, whether it is found on the disk or not
+                final KieModule kjar = module == null ? KieBaseCache.getModule(releaseId) : module;
+                diskKey = this.disk.getKey(releaseId, checksum == null ? StrategyDiskCache.getChecksum(kjar) :
+                        checksum);
+                if (diskKey != null) {
+                    final KieBase cached = this.disk.loadKieBase(diskKey, KieBaseCache.getClassLoader(kjar));
+                    if (cached != null) {
+                        this.diskHits.incrementAndGet();
+                        return cached;
+                    }
+                }
+            }
+            final KieServices ks = KieServices.Factory.get();
+            final KieBaseConfiguration config = ks.newKieBaseConfiguration();
+            config.setOption(EventProcessingOption.STREAM);
+            final KieBase kieBase = ks.newKieContainer(releaseId).newKieBase(config);
+            if (diskKey != null) {
+                this.disk.storeKieBase(diskKey, kieBase);
+            }
+            return kieBase;
+        } finally {
+            this.compilationTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Retrieve the compiled strategy, compiling it if necessary. When multiple threads ask for the same strategy at
+     * the same time, only one of them will compile it and the others will wait for the result. Failures are never
+     * cached.
+     *
+     * @param releaseId
+     *            Strategy in question, in the form of a kjar.
+     * @return The compiled strategy.
+     * @throws RuntimeException
+     *             The same exception that {@link KieServices} throw when the strategy cannot be compiled.
+     */
+    public KieBase get(final ReleaseId releaseId) {
+        // only SNAPSHOTs need their kjar resolved before the cache is looked at
+        final KieModule module = KieBaseCache.isSnapshot(releaseId) ? KieBaseCache.getModule(releaseId) : null;
+        final String checksum = module == null ? null : StrategyDiskCache.getChecksum(module);
+        return this.get(KieBaseCache.getKey(releaseId, checksum), releaseId, module, checksum);
+    }
+
+    /**
+     * Retrieve the compiled strategy, compiling it if necessary, when its kjar has already been resolved and hashed.
+     * The kjar will not be resolved nor hashed again.
+     *
+     * @param releaseId
+     *            Strategy in question, in the form of a kjar.
+     * @param module
+     *            The resolved kjar. When null, this is the same as {@link #get(ReleaseId)}.
+     * @param checksum
+     *            Checksum of the kjar, see {@link StrategyDiskCache#getChecksum(KieModule)}.
+     * @return The compiled strategy.
+     * @throws RuntimeException
+     *             The same exception that {@link KieServices} throw when the strategy cannot be compiled.
+     */
+    public KieBase get(final ReleaseId releaseId, final KieModule module, final String checksum) {
+        if (module == null) {
+            return this.get(releaseId);
+        }
+        return this.get(KieBaseCache.getKey(releaseId, checksum), releaseId, module, checksum);
+    }
+
+    /**
+     * Retrieve the compiled strategy, compiling it if necessary, and never evict it from the cache afterwards. Intended
+     * for strategies that will be asked for over and over again, such as those of a tournament, so that they are not
+     * compiled again when many other strategies are in use.
+     *
+     * @param releaseId
+     *            Strategy in question, in the form of a kjar.
+     * @return The compiled strategy.
+     * @throws RuntimeException
+     *             The same exception that {@link KieServices} throw when the strategy cannot be compiled.
+     */
+    public KieBase pin(final ReleaseId releaseId) {
+        final KieModule module = KieBaseCache.isSnapshot(releaseId) ? KieBaseCache.getModule(releaseId) : null;
+        final String checksum = module == null ? null : StrategyDiskCache.getChecksum(module);
+        final String key = KieBaseCache.getKey(releaseId, checksum);
+        synchronized (this.kieBases) {
+            this.pinned.add(key);
+        }
+        try {
+            return this.get(key, releaseId, module, checksum);
+        } catch (final RuntimeException ex) {
+            synchronized (this.kieBases) {
+                this.pinned.remove(key);
+            }
+            throw ex;
+        }
+    }
+
+    private KieBase get(final String key, final ReleaseId releaseId, final KieModule module, final String checksum) {
+        FutureTask<KieBase> compilation = null;
+        Future<KieBase> result;
+        synchronized (this.kieBases) {
+            result = this.kieBases.get(key);
+            if (result == null) {
+                compilation = new FutureTask<>(() -> this.compile(releaseId, module, checksum));
+                this.kieBases.put(key, compilation);
+                result = compilation;
+            }
+        }
+        if (compilation == null) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+            compilation.run();
+        }
+        try {
+            return result.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for strategy " + key + ".", ex);
+        } catch (final ExecutionException ex) {
+            synchronized (this.kieBases) {
+                this.kieBases.remove(key, result);
+            }
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException("Failed compiling strategy " + key + ".", cause);
+            }
+        }
+    }
+
+    /**
+     * How much time was spent compiling strategies.
+     *
+     * @param unit
+     *            Unit to return the time in.
+     * @return Total time spent compiling, including failed compilations.
+     */
+    public long getCompilationTime(final TimeUnit unit) {
+        return unit.convert(this.compilationTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * How many times a strategy had to be compiled, but was found in the {@link StrategyDiskCache} instead. Also
+     * counted as a miss.
+     *
+     * @return Number of disk cache hits.
+     */
+    public long getDiskHits() {
+        return this.diskHits.get();
+    }
+
+    /**
+     * How many times a strategy was requested and was already compiled.
+     *
+     * @return Number of cache hits.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * How many times a strategy was requested and had to be compiled.
+     *
+     * @return Number of cache misses.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * How many strategies are currently cached.
+     *
+     * @return Number of strategies in the cache.
+     */
+    public int size() {
+        synchronized (this.kieBases) {
+            return this.kieBases.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "KieBaseCache [size=" + this.size() + ", hits=" + this.hits + ", misses=" + this.misses + ", " +
+                "diskHits=" + this.diskHits + ", compilationTime=" + this.getCompilationTime(TimeUnit.MILLISECONDS) +
+                " ms]";
+    }
+
+}
@@ -0,0 +1,253 @@
+package org.drooms.util;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.core.util.Drools;
+import org.drools.core.util.DroolsStreamUtils;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.ReleaseId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Keeps compiled strategies, and whatever else is known about them, on the disk between JVM runs. Strategies are keyed
+ * by their Maven GAV together with a SHA-256 hash of the kjar, so that a changed kjar never hits a stale entry. The key
+ * also includes the Drools version and the version of the format of the entries, since neither serialized
+ * {@link KieBase}s nor anything else stored here survive an upgrade.
+ *
+ * <p>
+ * The folder can be set through the 'drooms.strategy.cache.dir' system property and defaults to
+ * '.drooms/strategies' in the user's home folder. Setting the property to an empty string disables the cache. The cache
+ * never fails the caller; entries that cannot be read or written are simply treated as missing.
+ * </p>
+ */
+public class StrategyDiskCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrategyDiskCache.class);
+
+    private static final String KIEBASE_SUFFIX = ".kbase";
+
+    /**
+     * Increase whenever entries written by an older version of this class can no longer be read.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final StrategyDiskCache INSTANCE = new StrategyDiskCache(StrategyDiskCache.getDefaultFolder());
+
+    private static File getDefaultFolder() {
+        final String folder = System.getProperty("drooms.strategy.cache.dir", System.getProperty("user.home") +
+                File.separator + ".drooms" + File.separator + "strategies");
+        return folder.trim().isEmpty() ? null : new File(folder.trim());
+    }
+
+    /**
+     * Return the single process-wide instance of this class.
+     *
+     * @return The instance.
+     */
+    public static StrategyDiskCache getInstance() {
+        return StrategyDiskCache.INSTANCE;
+    }
+
+    /**
+     * Calculate the checksum that identifies a kjar in a key.
+     *
+     * @param module
+     *            The kjar.
+     * @return Null if the kjar is not available.
+     */
+    public static String getChecksum(final KieModule module) {
+        if (!(module instanceof InternalKieModule)) {
+            return null;
+        }
+        return StrategyDiskCache.sha256(((InternalKieModule) module).getBytes());
+    }
+
+    private static String sha256(final byte[] data) {
+        try {
+            final StringBuilder sb = new StringBuilder();
+            for (final byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported by the JVM.", ex);
+        }
+    }
+
+    private final File folder;
+
+    /**
+     * Create a cache in a particular folder.
+     *
+     * @param folder
+     *            Where to keep the entries. Null to disable the cache.
+     */
+    StrategyDiskCache(final File folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Whether or not the cache stores anything.
+     *
+     * @return False if disabled.
+     */
+    public boolean isEnabled() {
+        return this.folder != null;
+    }
+
+    /**
+     * Get the key under which a strategy's entries are stored.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @return Null if the cache is disabled or the kjar is not available.
+     */
+    public String getKey(final ReleaseId releaseId) {
+        if (!this.isEnabled()) {
+            return null;
+        }
+        return this.getKey(releaseId, StrategyDiskCache.getChecksum(KieServices.Factory.get().getRepository()
+                .getKieModule(releaseId)));
+    }
+
+    /**
+     * Get the key under which a strategy's entries are stored, when the kjar has already been resolved.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @param checksum
+     *            Checksum of its kjar, from {@link #getChecksum(KieModule)}.
+     * @return Null if the cache is disabled or the checksum is null.
+     */
+    public String getKey(final ReleaseId releaseId, final String checksum) {
+        if (!this.isEnabled() || checksum == null) {
+            return null;
+        }
+        return "v" + StrategyDiskCache.FORMAT_VERSION + "/drools-" + Drools.getFullVersion() + "/" +
+                releaseId.getGroupId().trim() + ":" + releaseId.getArtifactId().trim() + ":" +
+                releaseId.getVersion().trim() + "#" + checksum;
+    }
+
+    private Path getFile(final String key, final String suffix) {
+        return new File(this.folder, StrategyDiskCache.sha256(key.getBytes(StandardCharsets.UTF_8)) + suffix)
+                .toPath();
+    }
+
+    private void write(final Path target, final byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        // never let a reader see a half-written entry
+        final Path temp = Files.createTempFile(target.getParent(), "entry", ".tmp");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read a compiled strategy.
+     *
+     * @param key
+     *            Key from {@link #getKey(ReleaseId)}.
+     * @param classLoader
+     *            Class loader of the strategy's kjar, to resolve the types that the strategy declares.
+     * @return Null if not cached or not readable.
+     */
+    public KieBase loadKieBase(final String key, final ClassLoader classLoader) {
+        final Path file = this.getFile(key, StrategyDiskCache.KIEBASE_SUFFIX);
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        try (final InputStream is = Files.newInputStream(file)) {
+            final KieBase kieBase = (KieBase) DroolsStreamUtils.streamIn(is, classLoader);
+            StrategyDiskCache.LOGGER.debug("Strategy {} loaded from {}.", key, file);
+            return kieBase;
+        } catch (final Exception ex) {
+            StrategyDiskCache.LOGGER.warn("Ignoring unreadable cached strategy {}.", file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Write a compiled strategy.
+     *
+     * @param key
+     *            Key from {@link #getKey(ReleaseId)}.
+     * @param kieBase
+     *            The compiled strategy.
+     */
+    public void storeKieBase(final String key, final KieBase kieBase) {
+        final Path file = this.getFile(key, StrategyDiskCache.KIEBASE_SUFFIX);
+        try {
+            this.write(file, DroolsStreamUtils.streamOut(kieBase));
+            StrategyDiskCache.LOGGER.debug("Strategy {} stored to {}.", key, file);
+        } catch (final Exception ex) {
+            StrategyDiskCache.LOGGER.warn("Failed caching strategy {}.", key, ex);
+        }
+    }
+
+    /**
+     * Read arbitrary information about a strategy.
+     *
+     * @param key
+     *            Key from {@link #getKey(ReleaseId)}.
+     * @param kind
+     *            What kind of information; every kind is stored separately.
+     * @return Null if not cached or not readable.
+     */
+    public Properties loadProperties(final String key, final String kind) {
+        final Path file = this.getFile(key, "." + kind);
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        try (final InputStream is = Files.newInputStream(file)) {
+            final Properties properties = new Properties();
+            properties.load(is);
+            return properties;
+        } catch (final IOException ex) {
+            StrategyDiskCache.LOGGER.warn("Ignoring unreadable cache entry {}.", file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Write arbitrary information about a strategy.
+     *
+     * @param key
+     *            Key from {@link #getKey(ReleaseId)}.
+     * @param kind
+     *            What kind of information; every kind is stored separately.
+     * @param properties
+     *            The information.
+     */
+    public void storeProperties(final String key, final String kind, final Properties properties) {
+        final Path file = this.getFile(key, "." + kind);
+        try (final ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            properties.store(os, key);
+            this.write(file, os.toByteArray());
+        } catch (final IOException ex) {
+            StrategyDiskCache.LOGGER.warn("Failed caching {} of strategy {}.", kind, key, ex);
+        }
+    }
+
+}
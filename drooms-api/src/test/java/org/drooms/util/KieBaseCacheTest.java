@@ -0,0 +1,91 @@
+package org.drooms.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.ReleaseId;
+
+import java.lang.reflect.Proxy;
+
+public class KieBaseCacheTest {
+
+    private static final ReleaseId INVALID = KieServices.Factory.get().newReleaseId("this", "artifact", "is.invalid");
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSize() {
+        new KieBaseCache(0);
+    }
+
+    @Test
+    public void testReleaseKey() {
+        Assertions.assertThat(KieBaseCache.getKey(KieBaseCacheTest.INVALID)).isEqualTo("this:artifact:is.invalid");
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        final KieBaseCache cache = new KieBaseCache(1);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(KieBaseCacheTest.INVALID);
+                Assert.fail("Invalid strategy must not compile.");
+            } catch (final RuntimeException ex) {
+                // expected
+            }
+        }
+        Assertions.assertThat(cache.size()).isEqualTo(0);
+        Assertions.assertThat(cache.getHits()).isEqualTo(0L);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testPinnedNotEvicted() {
+        final KieBaseCache cache = new KieBaseCache(1) {
+
+            @Override
+            KieBase compile(final ReleaseId releaseId, final KieModule module, final String checksum) {
+                // every compilation yields a different instance, so that recompilation can be told apart
+                return (KieBase) Proxy.newProxyInstance(KieBase.class.getClassLoader(), new Class<?>[] { KieBase
+                        .class }, (proxy, method, args) -> null);
+            }
+
+        };
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId pinned = ks.newReleaseId("org.drooms", "pinned", "1.0");
+        final ReleaseId other = ks.newReleaseId("org.drooms", "other", "1.0");
+        final KieBase kieBase = cache.pin(pinned);
+        cache.get(other);
+        cache.get(other);
+        // the other strategy does not fit, the pinned one stays
+        Assertions.assertThat(cache.get(pinned)).isSameAs(kieBase);
+        Assertions.assertThat(cache.getHits()).isEqualTo(1L);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(3L);
+        cache.clear();
+        Assertions.assertThat(cache.get(pinned)).isNotSameAs(kieBase);
+    }
+
+    @Test
+    public void testResolvedModuleUsed() {
+        final KieModule module = (KieModule) Proxy.newProxyInstance(KieModule.class.getClassLoader(), new Class<?>[]
+                { KieModule.class }, (proxy, method, args) -> null);
+        final KieBaseCache cache = new KieBaseCache(1) {
+
+            @Override
+            KieBase compile(final ReleaseId releaseId, final KieModule resolved, final String checksum) {
+                // the kjar is neither resolved nor hashed again
+                Assertions.assertThat(resolved).isSameAs(module);
+                Assertions.assertThat(checksum).isEqualTo("abc");
+                return (KieBase) Proxy.newProxyInstance(KieBase.class.getClassLoader(), new Class<?>[] { KieBase
+                        .class }, (proxy, method, args) -> null);
+            }
+
+        };
+        final ReleaseId snapshot = KieServices.Factory.get().newReleaseId("org.drooms", "resolved", "1.0-SNAPSHOT");
+        final KieBase kieBase = cache.get(snapshot, module, "abc");
+        Assertions.assertThat(cache.get(snapshot, module, "abc")).isSameAs(kieBase);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(1L);
+    }
+
+}
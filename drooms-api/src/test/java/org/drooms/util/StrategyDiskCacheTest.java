@@ -0,0 +1,85 @@
+package org.drooms.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.utils.KieHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public class StrategyDiskCacheTest {
+
+    private static final ReleaseId INVALID = KieServices.Factory.get().newReleaseId("this", "artifact", "is.invalid");
+
+    /**
+     * Declares its own type, which must survive the round trip too.
+     */
+    private static final String DRL = "package org.drooms.test\n" +
+            "global java.util.List results\n" +
+            "declare Counter value : int end\n" +
+            "rule \"create\" when not Counter() then insert(new Counter(1)); end\n" +
+            "rule \"report\" when Counter($v : value) then results.add($v); end\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDisabled() {
+        final StrategyDiskCache cache = new StrategyDiskCache(null);
+        Assertions.assertThat(cache.isEnabled()).isFalse();
+        Assertions.assertThat(cache.getKey(StrategyDiskCacheTest.INVALID)).isNull();
+    }
+
+    @Test
+    public void testMissingKjarHasNoKey() {
+        final StrategyDiskCache cache = new StrategyDiskCache(this.folder.getRoot());
+        Assertions.assertThat(cache.getKey(StrategyDiskCacheTest.INVALID)).isNull();
+    }
+
+    @Test
+    public void testPropertiesRoundTrip() {
+        final StrategyDiskCache cache = new StrategyDiskCache(this.folder.getRoot());
+        Assertions.assertThat(cache.loadProperties("some:key:1.0#abc", "test")).isNull();
+        final Properties properties = new Properties();
+        properties.setProperty("error.0", "Something is wrong.");
+        cache.storeProperties("some:key:1.0#abc", "test", properties);
+        Assertions.assertThat(cache.loadProperties("some:key:1.0#abc", "test")).isEqualTo(properties);
+        Assertions.assertThat(cache.loadProperties("some:key:1.0#abd", "test")).isNull();
+        Assertions.assertThat(cache.loadKieBase("some:key:1.0#abc", this.getClass().getClassLoader())).isNull();
+    }
+
+    @Test
+    public void testKeyVersioned() {
+        final StrategyDiskCache cache = new StrategyDiskCache(this.folder.getRoot());
+        Assertions.assertThat(cache.getKey(StrategyDiskCacheTest.INVALID, null)).isNull();
+        Assertions.assertThat(cache.getKey(StrategyDiskCacheTest.INVALID, "abc")).startsWith("v1/drools-")
+                .endsWith("/this:artifact:is.invalid#abc");
+    }
+
+    @Test
+    public void testKieBaseRoundTrip() {
+        final StrategyDiskCache cache = new StrategyDiskCache(this.folder.getRoot());
+        final KieBase kieBase = new KieHelper().addContent(StrategyDiskCacheTest.DRL, ResourceType.DRL).build();
+        cache.storeKieBase("some:key:1.0#abc", kieBase);
+        final KieBase loaded = cache.loadKieBase("some:key:1.0#abc", this.getClass().getClassLoader());
+        Assertions.assertThat(loaded).isNotNull().isNotSameAs(kieBase);
+        final KieSession session = loaded.newKieSession();
+        try {
+            final List<Object> results = new ArrayList<>();
+            session.setGlobal("results", results);
+            Assertions.assertThat(session.fireAllRules()).isEqualTo(2);
+            Assertions.assertThat(results).containsExactly(1);
+        } finally {
+            session.dispose();
+        }
+    }
+
+}
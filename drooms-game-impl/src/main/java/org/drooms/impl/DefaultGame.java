@@ -38,7 +38,7 @@ public class DefaultGame extends GameController {
 
     @Override
     protected Map<Collectible, Player> performCollectibleCollection(final Collection<Player> players) {
-        final Map<Collectible, Player> collections = new HashMap<>();
+        final Map<Collectible, Player> collections = new LinkedHashMap<>();
         for (final Player p : players) {
             final Node headPosition = this.getPlayerPosition(p).getHeadNode();
             final Collectible c = this.getCollectible(headPosition);
@@ -52,18 +52,19 @@ public class DefaultGame extends GameController {
     @Override
     protected Collection<Collectible> performCollectibleDistribution(final GameProperties gameConfig,
             final Playground playground, final Collection<Player> players, final int currentTurnNumber) {
-        return Collections.unmodifiableSet(gameConfig.getCollectibleTypes().stream().filter(ct -> {
+        final Set<Collectible> collectibles = gameConfig.getCollectibleTypes().stream().filter(ct -> {
             final BigDecimal probability = ct.getProbabilityOfAppearance();
-            final BigDecimal chosen = BigDecimal.valueOf(GameController.RANDOM.nextDouble());
+            final BigDecimal chosen = BigDecimal.valueOf(this.getRandom().nextDouble());
             return probability.compareTo(chosen) > 0;
         }).map(ct -> {
-            final double expirationAdjustmentRate = GameController.RANDOM.nextDouble() + 0.5;
+            final double expirationAdjustmentRate = this.getRandom().nextDouble() + 0.5;
             final double turnsToLast = expirationAdjustmentRate * ct.getExpiration();
             final int expiresIn = (int) Math.round(currentTurnNumber + turnsToLast);
             final int points = ct.getPoints();
             final Node target = this.pickRandomUnusedNode(playground, players);
             return new Collectible(target, points, expiresIn);
-        }).collect(Collectors.toSet()));
+        }).collect(Collectors.toCollection(LinkedHashSet::new)); // stable order for replays
+        return Collections.unmodifiableSet(collectibles);
     }
 
     @Override
@@ -157,7 +158,7 @@ public class DefaultGame extends GameController {
         if (finalNodes.size() == 0) {
             return null;
         } else {
-            return finalNodes.get(GameController.RANDOM.nextInt(finalNodes.size()));
+            return finalNodes.get(this.getRandom().nextInt(finalNodes.size()));
         }
     }
 
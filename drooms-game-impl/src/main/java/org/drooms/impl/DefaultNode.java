@@ -44,16 +44,26 @@ class DefaultNode implements Node {
     }
 
     private final Node.Type type;
-    private final int x, y;
+    private final int x, y, id;
 
     protected DefaultNode(final int x, final int y) {
         this(Node.Type.REGULAR, x, y);
     }
 
     protected DefaultNode(final Node.Type type, final int x, final int y) {
+        this(type, x, y, -1);
+    }
+
+    protected DefaultNode(final Node.Type type, final int x, final int y, final int id) {
         this.type = type;
         this.x = x;
         this.y = y;
+        this.id = id;
+    }
+
+    @Override
+    public int getId() {
+        return this.id;
     }
 
     @Override
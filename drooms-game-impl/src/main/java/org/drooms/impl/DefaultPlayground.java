@@ -8,120 +8,412 @@ import org.drooms.api.Node;
 import org.drooms.api.Node.Type;
 import org.drooms.api.Playground;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Playground backed by a packed array of cells, one byte per node, holding the ordinal of the node's {@link Type}.
+ * Nodes are stored at index y * width + x, which is also their {@link Node#getId()}. Connectivity, including the
+ * portals, is computed from the cells; on playgrounds of up to {@link #MAX_TABLED_NODES} nodes, it is precomputed into
+ * neighbour tables the first time it is asked for, on larger ones it is computed whenever asked for, so that it takes
+ * no memory. {@link Node} instances are only created once a node is first asked for, and the JUNG graph only when
+ * somebody asks for it. This way, the cells can come straight from a memory-mapped file and even the largest
+ * playgrounds load instantly.
+ *
+ * <p>
+ * The playground is surrounded by a ring of wall nodes, one node thick, that are created up front. Worms look one node
+ * beyond the edge all the time and this way, {@link #getNodeAt(int, int)} need not create a new wall for them.
+ * </p>
+ *
+ * <p>
+ * Playgrounds come in two formats. The text format is described in
+ * {@link GameController#buildPlayground(String, java.io.InputStream)}. The binary format, all numbers big-endian, is:
+ * </p>
+ * <ol>
+ * <li>magic number {@link #BINARY_MAGIC} and {@link #BINARY_VERSION}, 4 bytes each,</li>
+ * <li>width and height, 4 bytes each,</li>
+ * <li>number of starting positions followed by their node IDs, 4 bytes each,</li>
+ * <li>number of portals followed by, for every portal, its 2-byte label and the node IDs of both of its ends,</li>
+ * <li>width * height bytes of cells, row by row, starting at the bottom left.</li>
+ * </ol>
+ */
 class DefaultPlayground implements Playground {
 
+    /**
+     * "DRPG" in ASCII.
+     */
+    static final int BINARY_MAGIC = 0x44525047;
+    static final int BINARY_VERSION = 1;
+
     private static final char WALL_SIGN = '#';
     private static final char PLAYER_SIGN = '@';
+    private static final Type[] TYPES = Type.values();
+    private static final byte WALL = (byte) Type.WALL.ordinal();
+    private static final byte PORTAL = (byte) Type.PORTAL.ordinal();
+    /**
+     * Up, down, left, right and possibly a portal.
+     */
+    private static final int MAX_NEIGHBOURS = 5;
+    /**
+     * Nodes are created in chunks of this many, so that only the parts of the playground in use take memory.
+     */
+    private static final int NODE_CHUNK_SHIFT = 12;
+    private static final int NODE_CHUNK_SIZE = 1 << DefaultPlayground.NODE_CHUNK_SHIFT;
+    /**
+     * Largest playground for which the neighbour tables are built; they take 21 bytes per node.
+     */
+    static final int MAX_TABLED_NODES = 1 << 20;
 
-    private final Map<Node, Character> portals = new HashMap<>();
+    /**
+     * Connectivity of all the nodes, computed from the cells.
+     */
+    private static final class Tables {
 
-    private final List<Node[]> nodeLocations = new ArrayList<>();
+        private final byte[] neighbourCounts;
+        private final int[] neighbours;
 
-    private final Graph<Node, Edge> graph = new UndirectedSparseGraph<>();
-    private final List<Node> startingNodes = new ArrayList<>();
-    private final int width;
-    private final String name;
+        public Tables(final int nodeCount) {
+            this.neighbourCounts = new byte[nodeCount];
+            this.neighbours = new int[nodeCount * DefaultPlayground.MAX_NEIGHBOURS];
+        }
 
-    DefaultPlayground(final String name, final List<String> lines) {
-        this.name = name;
+    }
+
+    /**
+     * Build a playground from the text format.
+     *
+     * @param name
+     *            Name of the playground.
+     * @param lines
+     *            Lines of the playground, the bottom one first.
+     * @return The playground.
+     */
+    static DefaultPlayground fromText(final String name, final List<String> lines) {
+        final int height = lines.size();
+        final int width = lines.stream().mapToInt(String::length).max().orElse(0);
+        final byte[] cells = new byte[width * height];
+        final List<Integer> startingIds = new ArrayList<>();
         // portal data
-        final Map<Character, Node> portalEntries = new TreeMap<>();
-        final Map<Character, Node> portalExits = new TreeMap<>();
-        // assemble nodes
-        int maxX = Integer.MIN_VALUE;
-        final Collection<Node> identifiedNodes = new HashSet<>();
-        for (final String line : lines) {
-            int y = this.nodeLocations.size();
-            final Node[] locations = new Node[line.length()];
-            for (int x = 0; x < line.length(); x++) {
+        final Map<Character, Integer> portalEntries = new TreeMap<>();
+        final Map<Character, Integer> portalExits = new TreeMap<>();
+        for (int y = 0; y < height; y++) {
+            final String line = lines.get(y);
+            for (int x = 0; x < width; x++) {
+                final int id = y * width + x;
+                if (x >= line.length()) { // short lines are padded with walls
+                    cells[id] = DefaultPlayground.WALL;
+                    continue;
+                }
                 final char nodeLabel = line.charAt(x);
-                Node n;
+                Type type;
                 switch (nodeLabel) {
                     case WALL_SIGN: // wall node
-                        n = new DefaultNode(Type.WALL, x, y);
+                        type = Type.WALL;
                         break;
                     case PLAYER_SIGN: // player starting position
-                        n = new DefaultNode(Type.STARTING_POSITION, x, y);
-                        this.startingNodes.add(n);
+                        type = Type.STARTING_POSITION;
+                        startingIds.add(id);
                         break;
                     case ' ': // regular node
-                        n = new DefaultNode(x, y);
+                        type = Type.REGULAR;
                         break;
                     default: // any other character is a portal
-                        n = new DefaultNode(Type.PORTAL, x, y);
+                        type = Type.PORTAL;
                         if (portalEntries.containsKey(nodeLabel)) {
                             if (portalExits.containsKey(nodeLabel)) {
                                 throw new IllegalStateException("Portal " + nodeLabel + " appears more than twice!");
                             } else {
-                                portalExits.put(nodeLabel, n);
+                                portalExits.put(nodeLabel, id);
                             }
                         } else {
-                            portalEntries.put(nodeLabel, n);
+                            portalEntries.put(nodeLabel, id);
                         }
                 }
-                identifiedNodes.add(n);
-                locations[x] = n;
-                maxX = Math.max(maxX, x);
-            }
-            this.nodeLocations.add(locations);
-            y++;
-        }
-        this.width = maxX + 1;
-        // link nodes
-        for (final Node n : identifiedNodes) {
-            if (n.getType() == Type.WALL) {
-                // don't link wall node to any other node
-                continue;
-            }
-            final int y = n.getY();
-            final int x = n.getX();
-            // link upwards
-            if (y > 0) {
-                this.link(x, y, x, y - 1);
-            }
-            // link downwards
-            if (y < this.nodeLocations.size() - 1) {
-                this.link(x, y, x, y + 1);
-            }
-            final Node[] nodes = this.nodeLocations.get(y);
-            // link to the left
-            if (x > 0) {
-                this.link(x, y, x - 1, y);
-            }
-            // link to the right
-            if (x < nodes.length - 1) {
-                this.link(x, y, x + 1, y);
-            }
-        }
-        // link portals
-        for (final Map.Entry<Character, Node> entries : portalEntries.entrySet()) {
+                cells[id] = (byte) type.ordinal();
+            }
+        }
+        final char[] labels = new char[portalEntries.size()];
+        final int[] ends = new int[portalEntries.size() * 2];
+        int i = 0;
+        for (final Map.Entry<Character, Integer> entries : portalEntries.entrySet()) {
             final Character key = entries.getKey();
             if (!portalExits.containsKey(key)) {
                 throw new IllegalStateException("Portal " + key + " has no opposite end.");
             }
-            final Node entry = entries.getValue();
-            final Node exit = portalExits.get(key);
-            this.link(entry.getX(), entry.getY(), exit.getX(), exit.getY());
-            this.portals.put(entry, key);
-            this.portals.put(exit, key);
+            labels[i] = key;
+            ends[2 * i] = entries.getValue();
+            ends[2 * i + 1] = portalExits.get(key);
+            i++;
         }
+        return new DefaultPlayground(name, width, height, ByteBuffer.wrap(cells), startingIds.stream().mapToInt
+                (Integer::intValue).toArray(), labels, ends, lines.stream().mapToInt(String::length).toArray());
+    }
+
+    /**
+     * Build a playground from the binary format. The cells are not copied; they are read straight from the buffer
+     * whenever needed.
+     *
+     * @param name
+     *            Name of the playground.
+     * @param data
+     *            The binary playground, positioned at the magic number. Typically a memory-mapped file.
+     * @return The playground.
+     */
+    static DefaultPlayground fromBinary(final String name, final ByteBuffer data) {
+        final ByteBuffer buffer = data.slice().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 16 || buffer.getInt() != DefaultPlayground.BINARY_MAGIC) {
+            throw new IllegalStateException("Not a binary playground: " + name);
+        }
+        final int version = buffer.getInt();
+        if (version != DefaultPlayground.BINARY_VERSION) {
+            throw new IllegalStateException("Unsupported binary playground version " + version + ": " + name);
+        }
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
+        if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Invalid binary playground dimensions " + width + "x" + height);
+        }
+        final int[] startingIds = new int[buffer.getInt()];
+        for (int i = 0; i < startingIds.length; i++) {
+            startingIds[i] = buffer.getInt();
+        }
+        final int portalCount = buffer.getInt();
+        final char[] labels = new char[portalCount];
+        final int[] ends = new int[portalCount * 2];
+        for (int i = 0; i < portalCount; i++) {
+            labels[i] = buffer.getChar();
+            ends[2 * i] = buffer.getInt();
+            ends[2 * i + 1] = buffer.getInt();
+        }
+        if (buffer.remaining() < width * height) {
+            throw new IllegalStateException("Binary playground truncated: " + name);
+        }
+        final ByteBuffer cells = buffer.slice();
+        cells.limit(width * height);
+        return new DefaultPlayground(name, width, height, cells, startingIds, labels, ends, null);
+    }
+
+    private final ByteBuffer cells;
+    private final int[] lineLengths;
+    private final int[] startingIds;
+    /**
+     * Node IDs of all portal ends, sorted; the other arrays hold the other end and the label at the same index.
+     */
+    private final int[] portalIds;
+    private final int[] portalOtherEnds;
+    private final char[] portalLabels;
+    private final int nodeCount;
+    private final AtomicReferenceArray<AtomicReferenceArray<Node>> nodes;
+    private final Node[] border;
+
+    private volatile Tables tables;
+    private volatile Graph<Node, Edge> graph;
+    private final int width;
+    private final int height;
+    private final String name;
+
+    private DefaultPlayground(final String name, final int width, final int height, final ByteBuffer cells,
+            final int[] startingIds, final char[] labels, final int[] ends, final int[] lineLengths) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.lineLengths = lineLengths;
+        this.nodeCount = width * height;
+        this.nodes = new AtomicReferenceArray<>((this.nodeCount + DefaultPlayground.NODE_CHUNK_SIZE - 1) >>>
+                DefaultPlayground.NODE_CHUNK_SHIFT);
+        for (final int id : startingIds) {
+            if (!this.isNode(id) || this.getType(id) != Type.STARTING_POSITION) {
+                throw new IllegalStateException("Node " + id + " is not a starting position.");
+            }
+        }
+        this.startingIds = startingIds;
+        // portals are few, keep them sorted by node ID and look them up by binary search
+        final Integer[] order = new Integer[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            final int id = ends[i];
+            if (!this.isNode(id) || this.cells.get(id) != DefaultPlayground.PORTAL) {
+                throw new IllegalStateException("Node " + id + " is not a portal.");
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> ends[i]));
+        this.portalIds = new int[ends.length];
+        this.portalOtherEnds = new int[ends.length];
+        this.portalLabels = new char[ends.length];
+        for (int i = 0; i < order.length; i++) {
+            final int end = order[i];
+            this.portalIds[i] = ends[end];
+            this.portalOtherEnds[i] = ends[end ^ 1]; // ends of the same portal are stored next to each other
+            this.portalLabels[i] = labels[end / 2];
+            if (i > 0 && this.portalIds[i] == this.portalIds[i - 1]) {
+                throw new IllegalStateException("Node " + this.portalIds[i] + " is a part of more than one portal.");
+            }
+        }
+        // surround the playground with walls; bottom and top rows first, then left and right columns
+        this.border = new Node[2 * (this.width + 2) + 2 * this.height];
+        for (int x = -1; x <= this.width; x++) {
+            this.border[x + 1] = new DefaultNode(Type.WALL, x, -1);
+            this.border[this.width + 2 + x + 1] = new DefaultNode(Type.WALL, x, this.height);
+        }
+        for (int y = 0; y < this.height; y++) {
+            this.border[2 * (this.width + 2) + y] = new DefaultNode(Type.WALL, -1, y);
+            this.border[2 * (this.width + 2) + this.height + y] = new DefaultNode(Type.WALL, this.width, y);
+        }
+    }
+
+    private boolean isNode(final int id) {
+        return id >= 0 && id < this.nodeCount;
+    }
+
+    private Type getType(final int id) {
+        final int type = this.cells.get(id);
+        if (type < 0 || type >= DefaultPlayground.TYPES.length) {
+            throw new IllegalStateException("Node " + id + " has unknown type " + type);
+        }
+        return DefaultPlayground.TYPES[type];
+    }
+
+    private boolean isWall(final int id) {
+        return this.cells.get(id) == DefaultPlayground.WALL;
+    }
+
+    private int getPortalIndex(final int id) {
+        return Arrays.binarySearch(this.portalIds, id);
+    }
+
+    private int getId(final int x, final int y) {
+        return y * this.width + x;
+    }
+
+    private int step(final int id, final int direction) {
+        final int x = id % this.width;
+        final int y = id / this.width;
+        final int other;
+        switch (direction) {
+            case 0: // downwards, since 0,0 is bottom left
+                other = y > 0 ? id - this.width : -1;
+                break;
+            case 1: // upwards
+                other = y < this.height - 1 ? id + this.width : -1;
+                break;
+            case 2: // to the left
+                other = x > 0 ? id - 1 : -1;
+                break;
+            default: // to the right
+                other = x < this.width - 1 ? id + 1 : -1;
+        }
+        return other < 0 || this.isWall(other) ? -1 : other;
+    }
+
+    /**
+     * Walk the neighbours of a node in a stable order: down, up, left, right and the other end of a portal.
+     *
+     * @param id
+     *            ID of the node.
+     * @param index
+     *            Which neighbour to find; {@link Integer#MAX_VALUE} to just count them.
+     * @return ID of the neighbour; when not found, -1 minus the number of neighbours.
+     */
+    private int findNeighbour(final int id, final int index) {
+        if (this.isWall(id)) {
+            // don't link wall node to any other node
+            return -1;
+        }
+        int found = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            final int other = this.step(id, direction);
+            if (other >= 0 && found++ == index) {
+                return other;
+            }
+        }
+        final int portal = this.cells.get(id) == DefaultPlayground.PORTAL ? this.getPortalIndex(id) : -1;
+        if (portal >= 0) {
+            final int partner = this.portalOtherEnds[portal];
+            final int distance = Math.abs(partner % this.width - id % this.width) + Math.abs(partner / this.width -
+                    id / this.width);
+            // a portal right next to its other end is already a neighbour
+            if (distance != 1 && found++ == index) {
+                return partner;
+            }
+        }
+        return -1 - found;
+    }
+
+    /**
+     * @return The neighbour tables, or null if the playground is too large for them.
+     */
+    private Tables getTables() {
+        if (this.nodeCount > DefaultPlayground.MAX_TABLED_NODES) {
+            return null;
+        }
+        Tables result = this.tables;
+        if (result == null) {
+            synchronized (this) {
+                result = this.tables;
+                if (result == null) {
+                    result = this.buildTables();
+                    this.tables = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Tables buildTables() {
+        final Tables result = new Tables(this.nodeCount);
+        for (int id = 0; id < this.nodeCount; id++) {
+            final int start = id * DefaultPlayground.MAX_NEIGHBOURS;
+            int count = 0;
+            for (int other = this.findNeighbour(id, count); other >= 0; other = this.findNeighbour(id, count)) {
+                result.neighbours[start + count++] = other;
+            }
+            result.neighbourCounts[id] = (byte) count;
+        }
+        return result;
     }
 
     @Override
     public Graph<Node, Edge> getGraph() {
-        return Graphs.unmodifiableGraph(this.graph);
+        Graph<Node, Edge> result = this.graph;
+        if (result == null) {
+            synchronized (this) {
+                result = this.graph;
+                if (result == null) {
+                    result = Graphs.unmodifiableGraph(this.buildGraph());
+                    this.graph = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Graph<Node, Edge> buildGraph() {
+        final Graph<Node, Edge> result = new UndirectedSparseGraph<>();
+        for (int id = 0; id < this.getNodeCount(); id++) {
+            for (int i = 0; i < this.getNeighbourCount(id); i++) {
+                final int otherId = this.getNeighbourId(id, i);
+                if (otherId > id) { // every edge only once
+                    final Node node1 = this.getNodeById(id);
+                    final Node node2 = this.getNodeById(otherId);
+                    result.addEdge(new DefaultEdge(node1, node2), node1, node2);
+                }
+            }
+        }
+        return result;
     }
 
     @Override
     public int getHeight() {
-        return this.nodeLocations.size();
+        return this.height;
     }
 
     @Override
@@ -129,9 +421,60 @@ class DefaultPlayground implements Playground {
         return this.name;
     }
 
+    @Override
+    public int getNeighbourCount(final int id) {
+        final Tables tables = this.getTables();
+        return tables == null ? -1 - this.findNeighbour(id, Integer.MAX_VALUE) : tables.neighbourCounts[id];
+    }
+
+    @Override
+    public int getNeighbourId(final int id, final int index) {
+        final Tables tables = this.getTables();
+        if (tables == null) {
+            final int result = index < 0 ? -1 : this.findNeighbour(id, index);
+            if (result < 0) {
+                throw new IndexOutOfBoundsException("Node " + id + " has no neighbour #" + index);
+            }
+            return result;
+        } else if (index < 0 || index >= tables.neighbourCounts[id]) {
+            throw new IndexOutOfBoundsException("Node " + id + " has no neighbour #" + index);
+        }
+        return tables.neighbours[id * DefaultPlayground.MAX_NEIGHBOURS + index];
+    }
+
+    @Override
+    public Node getNodeById(final int id) {
+        if (!this.isNode(id)) {
+            throw new IndexOutOfBoundsException("No node with ID " + id);
+        }
+        final int chunkIndex = id >>> DefaultPlayground.NODE_CHUNK_SHIFT;
+        AtomicReferenceArray<Node> chunk = this.nodes.get(chunkIndex);
+        if (chunk == null) {
+            this.nodes.compareAndSet(chunkIndex, null, new AtomicReferenceArray<>(DefaultPlayground.NODE_CHUNK_SIZE));
+            chunk = this.nodes.get(chunkIndex);
+        }
+        final int index = id & (DefaultPlayground.NODE_CHUNK_SIZE - 1);
+        final Node existing = chunk.get(index);
+        if (existing != null) {
+            return existing;
+        }
+        // the first one to create the node wins, so that there is only ever one instance
+        chunk.compareAndSet(index, null, new DefaultNode(this.getType(id), id % this.width, id / this.width, id));
+        return chunk.get(index);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
     @Override
     public List<Node> getStartingPositions() {
-        return Collections.unmodifiableList(this.startingNodes);
+        final List<Node> result = new ArrayList<>(this.startingIds.length);
+        for (final int id : this.startingIds) {
+            result.add(this.getNodeById(id));
+        }
+        return Collections.unmodifiableList(result);
     }
 
     @Override
@@ -141,26 +484,12 @@ class DefaultPlayground implements Playground {
 
     @Override
     public boolean isAvailable(final int x, final int y) {
-        return (this.getNodeAt(x, y).getType() == Type.WALL) ? false : true;
-    }
-
-    private Edge link(final int x, final int y, final int otherX, final int otherY) {
-        if (!this.isAvailable(x, y) || !this.isAvailable(otherX, otherY)) {
-            return null;
-        }
-        final Node node1 = this.getNodeAt(x, y);
-        final Node node2 = this.getNodeAt(otherX, otherY);
-        Edge e = this.graph.findEdge(node1, node2);
-        if (e == null) {
-            e = new DefaultEdge(node1, node2);
-            this.graph.addEdge(e, node1, node2);
-        }
-        return e;
+        return this.isInside(x, y) && !this.isWall(this.getId(x, y));
     }
 
     /**
-     * Write out the playground into a stream.
-     * 
+     * Write out the playground into a stream, in the text format.
+     *
      * @param s
      *            The stream
      * @throws IOException
@@ -168,9 +497,11 @@ class DefaultPlayground implements Playground {
      */
     public void write(final OutputStream s) throws IOException {
         try (final BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(s, "UTF-8"))) {
-            for (final Node[] line : this.nodeLocations) {
-                for (final Node n : line) {
-                    switch (n.getType()) {
+            for (int y = 0; y < this.height; y++) {
+                final int length = this.lineLengths == null ? this.width : this.lineLengths[y];
+                for (int x = 0; x < length; x++) {
+                    final int id = this.getId(x, y);
+                    switch (this.getType(id)) {
                         case WALL:
                             bw.append(DefaultPlayground.WALL_SIGN);
                             break;
@@ -178,7 +509,7 @@ class DefaultPlayground implements Playground {
                             bw.append(DefaultPlayground.PLAYER_SIGN);
                             break;
                         case PORTAL:
-                            bw.append(this.portals.get(n));
+                            bw.append(this.portalLabels[this.getPortalIndex(id)]);
                             break;
                         default:
                             bw.append(' ');
@@ -189,33 +520,77 @@ class DefaultPlayground implements Playground {
         }
     }
 
+    /**
+     * Write out the playground into a stream, in the binary format. Lines shorter than the playground is wide will be
+     * padded with walls.
+     *
+     * @param s
+     *            The stream
+     * @throws IOException
+     *             In case the stream cannot be written.
+     */
+    public void writeBinary(final OutputStream s) throws IOException {
+        try (final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(s))) {
+            dos.writeInt(DefaultPlayground.BINARY_MAGIC);
+            dos.writeInt(DefaultPlayground.BINARY_VERSION);
+            dos.writeInt(this.width);
+            dos.writeInt(this.height);
+            dos.writeInt(this.startingIds.length);
+            for (final int id : this.startingIds) {
+                dos.writeInt(id);
+            }
+            dos.writeInt(this.portalIds.length / 2);
+            for (int i = 0; i < this.portalIds.length; i++) {
+                if (this.portalIds[i] < this.portalOtherEnds[i]) { // every portal only once
+                    dos.writeChar(this.portalLabels[i]);
+                    dos.writeInt(this.portalIds[i]);
+                    dos.writeInt(this.portalOtherEnds[i]);
+                }
+            }
+            final ByteBuffer source = this.cells.duplicate();
+            source.clear();
+            final byte[] chunk = new byte[8192];
+            while (source.hasRemaining()) {
+                final int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                dos.write(chunk, 0, length);
+            }
+        }
+    }
+
+    private boolean isInside(final int x, final int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
+    }
+
     @Override
     public Node getNodeAt(final int x, final int y) {
-        if (y < 0 || y >= this.nodeLocations.size()) {
-            return new DefaultNode(Type.WALL, x, y);
-        }
-        final Node[] nodes = this.nodeLocations.get(y);
-        if (x < 0 || x >= nodes.length) {
+        if (this.isInside(x, y)) {
+            return this.getNodeById(this.getId(x, y));
+        } else if (y == -1 && x >= -1 && x <= this.width) {
+            return this.border[x + 1];
+        } else if (y == this.height && x >= -1 && x <= this.width) {
+            return this.border[this.width + 2 + x + 1];
+        } else if (x == -1 && y >= 0 && y < this.height) {
+            return this.border[2 * (this.width + 2) + y];
+        } else if (x == this.width && y >= 0 && y < this.height) {
+            return this.border[2 * (this.width + 2) + this.height + y];
+        } else {
             return new DefaultNode(Type.WALL, x, y);
         }
-        return this.nodeLocations.get(y)[x];
     }
 
     @Override
     public Node getOtherEndOfPortal(final Node portal) {
         if (portal.getType() != Type.PORTAL) {
             throw new IllegalArgumentException("Node not a portal: " + portal);
-        } else if (!this.portals.containsKey(portal)) {
-            throw new IllegalArgumentException("Unknown portal:" + portal);
         }
-        final Character portalId = this.portals.get(portal);
-        final List<Node> possiblePortalEnds = this.portals.keySet().stream().filter(p -> portalId.equals(this.portals.get(p)))
-                .filter(p -> !p.equals(portal)).collect(Collectors.toList());
-        if (possiblePortalEnds.size() != 1) {
-            throw new IllegalStateException("Cannot find portal. This should not be possible at this point.");
-        } else {
-            return possiblePortalEnds.get(0);
+        final int x = portal.getX();
+        final int y = portal.getY();
+        final int index = this.isInside(x, y) ? this.getPortalIndex(this.getId(x, y)) : -1;
+        if (index < 0 || !this.getNodeAt(x, y).equals(portal)) {
+            throw new IllegalArgumentException("Unknown portal:" + portal);
         }
+        return this.getNodeById(this.portalOtherEnds[index]);
     }
 
 }
@@ -5,6 +5,9 @@ import org.drooms.api.GameProgressListener;
 import org.drooms.api.Player;
 import org.drooms.api.Playground;
 import org.drooms.impl.util.DroomsStrategyValidator;
+import org.drooms.impl.util.GameScheduler;
+import org.drooms.impl.util.StrategyRegistry;
+import org.kie.api.builder.ReleaseId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +15,8 @@ import java.io.*;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -19,17 +24,58 @@ import java.util.stream.Collectors;
  */
 public class DroomsGame {
 
+    /**
+     * A game that has its configuration read, its playground built and its strategies compiled, but has not yet
+     * started.
+     */
+    private static final class Prepared {
+
+        private final String name;
+        private final Game game;
+        private final Playground playground;
+
+        public Prepared(final String name, final Game game, final Playground playground) {
+            this.name = name;
+            this.game = game;
+            this.playground = playground;
+        }
+
+    }
+
     private final File p;
     private final File c;
     private final Collection<Player> players;
     private final File f;
     private final Class<? extends Game> cls;
     private final Set<GameProgressListener> listeners = new HashSet<>();
+    private Long seed = null;
+    private volatile Prepared prepared = null;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DroomsGame.class);
 
     public DroomsGame(final Class<? extends Game> game, final File p, final List<Player> players,
             final File gameConfig, final File reportFolder) {
+        this(game, p, players, gameConfig, reportFolder, null);
+    }
+
+    /**
+     * Create a game whose players' strategies have already been validated.
+     *
+     * @param game
+     *            Implementation of the game.
+     * @param p
+     *            Playground file.
+     * @param players
+     *            Players taking part in the game.
+     * @param gameConfig
+     *            Game configuration file.
+     * @param reportFolder
+     *            Where to write the reports to.
+     * @param strategies
+     *            Where to look for validation results before validating the strategies again. May be null.
+     */
+    public DroomsGame(final Class<? extends Game> game, final File p, final List<Player> players,
+            final File gameConfig, final File reportFolder, final StrategyRegistry strategies) {
         this.c = gameConfig;
         this.p = p;
         this.f = reportFolder;
@@ -38,7 +84,9 @@ public class DroomsGame {
         // validate players
         final List<Player> invalidPlayers = this.players.stream().filter(player -> {
             boolean isInvalid = false;
-            final DroomsStrategyValidator validator = DroomsStrategyValidator.getInstance(player.getStrategyReleaseId());
+            final ReleaseId releaseId = player.getStrategyReleaseId();
+            final DroomsStrategyValidator validator = strategies != null && strategies.contains(releaseId) ?
+                    strategies.getValidator(releaseId) : DroomsStrategyValidator.getInstance(releaseId);
             if (!validator.isValid()) {
                 isInvalid = true;
                 DroomsGame.LOGGER.error("Player {} has malformed strategy:", player.getName());
@@ -58,39 +106,139 @@ public class DroomsGame {
         return this.listeners.add(listener);
     }
 
+    /**
+     * Retrieve the playground of this game. Playgrounds are only parsed once per process and the same instance is
+     * shared by all the games played on it, see {@link PlaygroundCache}.
+     *
+     * @return The playground, named after its file.
+     */
     public Playground getPlayground() {
-        try (final InputStream is = new FileInputStream(this.p)) {
-            return this.cls.newInstance().buildPlayground(this.p.getName(), is);
+        return PlaygroundCache.getInstance().get(this.cls, this.p);
+    }
+
+    private Prepared newGame(final String name) {
+        try (final InputStream contextFis = new FileInputStream(this.c)) {
+            final Game g = this.cls.newInstance();
+            g.setContext(contextFis);
+            final Playground playground = this.getPlayground();
+            PlaygroundCache.getInstance().getDistances(playground); // computed once, or mapped from the disk
+            // compiled strategies are cached, the game will not have to wait for them
+            this.players.forEach(Player::constructKieBase);
+            return new Prepared(name, g, playground);
         } catch (InstantiationException | IllegalAccessException e) {
             throw new IllegalStateException("Cannot find game class.", e);
         } catch (final IOException e) {
-            throw new IllegalStateException("Cannot read playground.", e);
+            throw new IllegalStateException("Cannot read game configuration.", e);
         }
     }
 
-    public Map<Player, Integer> play(final String name) {
+    /**
+     * Do everything that can be done before the game is played: read the game configuration, build the playground and
+     * compile the player strategies. Intended to be called in the background while another game is being played, so
+     * that {@link #play(String)} can start immediately.
+     *
+     * @param name
+     *            Name of the game, the same that will later be given to {@link #play(String)}.
+     */
+    public void prepare(final String name) {
+        final long start = System.nanoTime();
+        this.prepared = this.newGame(name);
+        DroomsGame.LOGGER.info("Game {} prepared in {} ms.", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() -
+                start));
+    }
+
+    /**
+     * Throw away whatever {@link #prepare(String)} prepared, if the game is not going to be played after all.
+     */
+    public void discard() {
+        this.prepared = null;
+    }
+
+    boolean isPrepared() {
+        return this.prepared != null;
+    }
+
+    private File getReportFolder(final String name) {
         final File f = new File(this.f, name + "-" + Timestamp.from(Instant.now()));
         if (!f.exists()) {
             f.mkdirs();
         }
-        try (final InputStream contextFis = new FileInputStream(this.c); final InputStream playgroundFis = new
-                FileInputStream(this.p)) {
-            final Game g = this.cls.newInstance();
-            g.setContext(contextFis);
-            this.listeners.forEach(listener -> g.addListener(listener));
-            final Map<Player, Integer> result = g.play(g.buildPlayground(name, playgroundFis), this.players, f);
-            // report
-            try (final Writer w = new BufferedWriter(new FileWriter(new File(f, "report.xml")))) {
-                g.getReport().write(w);
-            } catch (final IOException e) {
-                DroomsGame.LOGGER.info("Failed writing report for game: {}.", name);
-            }
+        return f;
+    }
+
+    private Prepared takePrepared(final String name) {
+        final Prepared prepared = this.prepared;
+        this.prepared = null;
+        final Prepared current = prepared != null && prepared.name.equals(name) ? prepared : this.newGame(name);
+        if (this.seed != null) {
+            current.game.setSeed(this.seed);
+        }
+        this.listeners.forEach(listener -> current.game.addListener(listener));
+        return current;
+    }
+
+    private void writeReport(final Game g, final File f, final String name) {
+        try (final Writer w = new BufferedWriter(new FileWriter(new File(f, "report.xml")))) {
+            g.getReport().write(w);
+        } catch (final IOException e) {
+            DroomsGame.LOGGER.info("Failed writing report for game: {}.", name);
+        }
+    }
+
+    public Map<Player, Integer> play(final String name) {
+        final File f = this.getReportFolder(name);
+        try {
+            final Prepared current = this.takePrepared(name);
+            final Map<Player, Integer> result = current.game.play(current.playground, this.players, f);
+            this.writeReport(current.game, f, name);
             return result;
         } catch (final Exception ex) {
             throw new IllegalStateException("Cannot play the game.", ex);
         }
     }
 
+    /**
+     * Play the game on a scheduler shared with other games, without blocking the calling thread. Games based on
+     * {@link GameController} are played one phase at a time, see
+     * {@link GameController#playAsync(Playground, Collection, File, GameScheduler)}; other games are played on the
+     * scheduler's game threads.
+     *
+     * @param name
+     *            Name of the game.
+     * @param scheduler
+     *            Where to play the game.
+     * @return Points earned by the players, once the game is over and its report written.
+     */
+    public CompletableFuture<Map<Player, Integer>> playAsync(final String name, final GameScheduler scheduler) {
+        final File f = this.getReportFolder(name);
+        final Prepared current;
+        try {
+            current = this.takePrepared(name);
+        } catch (final Exception ex) {
+            final CompletableFuture<Map<Player, Integer>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("Cannot play the game.", ex));
+            return failed;
+        }
+        final Game g = current.game;
+        final CompletableFuture<Map<Player, Integer>> result = g instanceof GameController ? ((GameController) g)
+                .playAsync(current.playground, this.players, f, scheduler) : CompletableFuture.supplyAsync(() ->
+                g.play(current.playground, this.players, f), scheduler.getExecutor());
+        return result.thenApplyAsync(points -> {
+            this.writeReport(g, f, name);
+            return points;
+        }, scheduler.getExecutor());
+    }
+
+    /**
+     * Seed the next game with a given value, instead of a random one. See {@link Game#setSeed(long)}.
+     *
+     * @param seed
+     *            The seed.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
     public boolean removeListener(final GameProgressListener listener) {
         return this.listeners.remove(listener);
     }
@@ -2,14 +2,20 @@ package org.drooms.impl;
 
 import org.drooms.api.*;
 import org.drooms.impl.logic.CommandDistributor;
+import org.drooms.impl.logic.DistanceOracle;
 import org.drooms.impl.logic.commands.*;
 import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -50,7 +56,11 @@ public abstract class GameController implements Game {
 
     private GameProgressListener reporter;
 
-    protected static final SecureRandom RANDOM = new SecureRandom();
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private long seed = GameController.SEEDS.nextLong();
+
+    private SplittableRandom random;
 
     private final Map<Player, Integer> playerPoints = new HashMap<>();
 
@@ -58,7 +68,7 @@ public abstract class GameController implements Game {
 
     private final Map<Player, PlayerPosition> positions = new HashMap<>();
 
-    private final Map<Node, Collectible> collectiblesByNode = new HashMap<>();
+    private final Map<Node, Collectible> collectiblesByNode = new LinkedHashMap<>(); // stable order for replays
 
     private final Map<Player, SortedMap<Integer, Action>> decisionRecord = new HashMap<>();
 
@@ -109,6 +119,30 @@ public abstract class GameController implements Game {
         return this.positions.get(p);
     }
 
+    /**
+     * Static distances between the nodes of a playground, ignoring worms. Computed only once per playground and
+     * shared with the strategies, which get them through {@link org.drooms.impl.logic.PathTracker}.
+     *
+     * @param playground
+     *            Playground in question.
+     * @return The distances.
+     */
+    protected DistanceOracle getDistances(final Playground playground) {
+        return PlaygroundCache.getInstance().getDistances(playground);
+    }
+
+    /**
+     * Source of all the randomness in the game. Only available while the game is being played.
+     *
+     * @return Generator seeded with {@link #getSeed()}.
+     */
+    protected SplittableRandom getRandom() {
+        if (this.random == null) {
+            throw new IllegalStateException("Game is not being played.");
+        }
+        return this.random;
+    }
+
     @Override
     public GameProgressListener getReport() {
         return this.reporter;
@@ -194,11 +228,26 @@ public abstract class GameController implements Game {
     protected abstract Map<Player, Integer> performSurvivalRewarding(Collection<Player> allPlayers,
             Collection<Player> survivingPlayers, int removedInThisRound, int rewardAmount);
 
-    private Map<Player, Action> playTurn(final Playground playground, final Collection<Player> players,
-                                         final CommandDistributor playerControl,
-                                         final Map<Player, Action> previousDecisions, final int turnNumber,
-                                         final int allowedInactiveTurns,
-                                         final int wormSurvivalBonus) {
+    /**
+     * Resolve everything that happens in a turn before the players get to decide on their next moves.
+     *
+     * @param playground
+     *            Playground on which the game is happening.
+     * @param players
+     *            All the players that ever were in the game.
+     * @param playerControl
+     *            Players still in the game.
+     * @param previousDecisions
+     *            Decisions the players made in the previous turn.
+     * @param turnNumber
+     *            Current turn number.
+     * @return False if not enough players survived the turn for them to make any more decisions.
+     */
+    private boolean prepareTurn(final Playground playground, final Collection<Player> players,
+                                final CommandDistributor playerControl,
+                                final Map<Player, Action> previousDecisions, final int turnNumber) {
+        final int allowedInactiveTurns = this.gameConfig.getMaximumInactiveTurns();
+        final int wormSurvivalBonus = this.gameConfig.getDeadWormBonus();
         GameController.LOGGER.info("--- Starting turn no. {}.", turnNumber);
         final int preRemoval = playerControl.getPlayers().size();
         // remove inactive worms
@@ -242,7 +291,7 @@ public abstract class GameController implements Game {
         });
         if (postRemoval < 2) {
             // end turn prematurely since not enough players survived
-            return Collections.emptyMap();
+            return false;
         }
         // distribute new collectibles
         this.performCollectibleDistribution(this.gameConfig, playground, survivingPlayers, turnNumber).stream()
@@ -250,13 +299,25 @@ public abstract class GameController implements Game {
                     this.addCollectible(c);
                     playerControl.distributeCommand(new AddCollectibleCommand(c));
                 });
-        // make the move decision
-        return playerControl.execute();
+        // the players can make their move decisions now
+        return true;
     }
 
-    @Override
-    public Map<Player, Integer> play(final Playground playground, final Collection<Player> players,
-                                     final File reportFolder) {
+    /**
+     * Set up the game and its players.
+     *
+     * @param playground
+     *            Playground on which the game is happening.
+     * @param players
+     *            The players taking part in the game.
+     * @param reportFolder
+     *            Where to report to.
+     * @param scheduler
+     *            Where to run the players' strategies.
+     * @return The players, ready for the first turn.
+     */
+    private CommandDistributor start(final Playground playground, final Collection<Player> players,
+                                     final File reportFolder, final GameScheduler scheduler) {
         if (this.gameConfig == null) {
             throw new IllegalStateException("Game context had not been set!");
         }
@@ -265,12 +326,10 @@ public abstract class GameController implements Game {
             throw new IllegalStateException("This game had already been played.");
         }
         this.played.set(true);
+        GameController.LOGGER.info("Game seed is {}.", this.seed);
+        this.random = new SplittableRandom(this.seed);
         // prepare the playground
         final int wormLength = this.gameConfig.getStartingWormLength();
-        final int allowedInactiveTurns = this.gameConfig.getMaximumInactiveTurns();
-        final int allowedTurns = this.gameConfig.getMaximumTurns();
-        final int wormSurvivalBonus = this.gameConfig.getDeadWormBonus();
-        final int wormTimeout = this.gameConfig.getStrategyTimeoutInSeconds();
         // prepare players and their starting positions
         final List<Node> startingPositions = playground.getStartingPositions();
         final int playersSupported = startingPositions.size();
@@ -286,33 +345,121 @@ public abstract class GameController implements Game {
             playerPoints.put(player, 0);
             GameController.LOGGER.info("Player {} assigned position {}.", player.getName(), playerPosition);
         });
+        // the players' trackers share the distances, which may take a while on large playgrounds
+        this.getDistances(playground);
         // prepare situation
-        this.reporter = new XmlProgressListener(playground, players, this.gameConfig);
+        this.reporter = new XmlProgressListener(playground, players, this.gameConfig, this.seed);
         final CommandDistributor playerControl = new CommandDistributor(playground, players, this.reporter,
-                this.gameConfig, reportFolder, wormTimeout);
+                this.gameConfig, reportFolder, scheduler);
         this.listeners.forEach(listener -> playerControl.addListener(listener));
+        // warm up before the clock starts
+        final int warmUpTurns = this.gameConfig.getWarmUpTurns();
+        if (warmUpTurns > 0) {
+            playerControl.warmUp(warmUpTurns, players.stream().map(this::getPlayerPosition).collect(Collectors
+                    .toList()));
+        }
+        return playerControl;
+    }
+
+    private boolean isOver(final int turnCount, final CommandDistributor playerControl) {
+        final int allowedTurns = this.gameConfig.getMaximumTurns();
+        if (turnCount == allowedTurns) {
+            GameController.LOGGER.info("Reached a pre-defined limit of {} turns. Terminating game.", allowedTurns);
+            return true;
+        } else if (playerControl.getPlayers().size() < 2) {
+            GameController.LOGGER.info("There are no more players. Terminating game.");
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private Map<Player, Integer> finish(final CommandDistributor playerControl) {
+        playerControl.terminate(); // clean up all the sessions
+        // output player status
+        GameController.LOGGER.info("--- Game over.");
+        this.playerPoints.forEach((key, value) -> GameController.LOGGER.info("Player {} earned {} points.",
+                key.getName(), value));
+        return Collections.unmodifiableMap(this.playerPoints);
+    }
+
+    @Override
+    public Map<Player, Integer> play(final Playground playground, final Collection<Player> players,
+                                     final File reportFolder) {
+        final CommandDistributor playerControl = this.start(playground, players, reportFolder,
+                GameScheduler.getDefault());
         Map<Player, Action> decisions = Collections.emptyMap();
         // start the game
         int turnCount = 0;
         do {
             final int turnNumber = turnCount + GameProperties.FIRST_TURN_NUMBER;
-            decisions = this.playTurn(playground, players, playerControl, decisions, turnNumber, allowedInactiveTurns,
-                    wormSurvivalBonus);
+            decisions = this.prepareTurn(playground, players, playerControl, decisions, turnNumber) ?
+                    playerControl.execute() : Collections.emptyMap();
             turnCount++;
-            if (turnCount == allowedTurns) {
-                GameController.LOGGER.info("Reached a pre-defined limit of {} turns. Terminating game.", allowedTurns);
-                break;
-            } else if (playerControl.getPlayers().size() < 2) {
-                GameController.LOGGER.info("There are no more players. Terminating game.");
-                break;
+        } while (!this.isOver(turnCount, playerControl));
+        return this.finish(playerControl);
+    }
+
+    /**
+     * Play the game without blocking the calling thread. The game is played on the scheduler, one phase of a turn at
+     * a time, interleaved with whatever other games the scheduler is running. Otherwise the same as
+     * {@link #play(Playground, Collection, File)}.
+     *
+     * @param playground
+     *            Playground on which the game is happening.
+     * @param players
+     *            The players taking part in the game.
+     * @param reportFolder
+     *            Where to report to.
+     * @param scheduler
+     *            Where to play the game.
+     * @return Points earned by the players, once the game is over.
+     */
+    public CompletableFuture<Map<Player, Integer>> playAsync(final Playground playground,
+                                                             final Collection<Player> players,
+                                                             final File reportFolder, final GameScheduler scheduler) {
+        final CompletableFuture<Map<Player, Integer>> result = new CompletableFuture<>();
+        // setting up the players waits for the workers, so it must not run on one of them
+        scheduler.getExecutor().execute(() -> {
+            final CommandDistributor playerControl;
+            try {
+                playerControl = this.start(playground, players, reportFolder, scheduler);
+            } catch (final RuntimeException ex) {
+                result.completeExceptionally(ex);
+                return;
             }
-        } while (true);
-        playerControl.terminate(); // clean up all the sessions
-        // output player status
-        GameController.LOGGER.info("--- Game over.");
-        this.playerPoints.forEach((key, value) -> GameController.LOGGER.info("Player {} earned {} points.",
-                key.getName(), value));
-        return Collections.unmodifiableMap(this.playerPoints);
+            scheduler.getExecutor().execute(() -> this.playTurnAsync(playground, players, playerControl,
+                    Collections.emptyMap(), 0, scheduler, result));
+        });
+        return result;
+    }
+
+    private void playTurnAsync(final Playground playground, final Collection<Player> players,
+                               final CommandDistributor playerControl, final Map<Player, Action> previousDecisions,
+                               final int turnCount, final GameScheduler scheduler,
+                               final CompletableFuture<Map<Player, Integer>> result) {
+        try {
+            if (turnCount > 0 && this.isOver(turnCount, playerControl)) {
+                result.complete(this.finish(playerControl));
+                return;
+            }
+            final int turnNumber = turnCount + GameProperties.FIRST_TURN_NUMBER;
+            final CompletableFuture<Map<Player, Action>> decisions = this.prepareTurn(playground, players,
+                    playerControl, previousDecisions, turnNumber) ? playerControl.executeAsync() :
+                    CompletableFuture.completedFuture(Collections.emptyMap());
+            // no thread is held while the players decide; the next turn is a new task for the scheduler
+            decisions.whenCompleteAsync((moves, ex) -> {
+                if (ex == null) {
+                    this.playTurnAsync(playground, players, playerControl, moves, turnCount + 1, scheduler, result);
+                } else {
+                    playerControl.terminate();
+                    result.completeExceptionally(ex);
+                }
+            }, scheduler.getExecutor());
+        } catch (final RuntimeException ex) {
+            playerControl.terminate();
+            result.completeExceptionally(ex);
+        }
     }
 
     private void removeCollectible(final Collectible c) {
@@ -328,6 +475,18 @@ public abstract class GameController implements Game {
         this.playerPoints.put(p, this.playerPoints.get(p) + points);
     }
 
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        if (this.played.get()) {
+            throw new IllegalStateException("This game had already been played.");
+        }
+        this.seed = seed;
+    }
+
     /**
      * 
      */
@@ -348,6 +507,10 @@ public abstract class GameController implements Game {
         this.positions.put(position.getPlayer(), position);
     }
 
+    private static boolean isBinaryPlayground(final byte[] header) {
+        return header.length >= 4 && ByteBuffer.wrap(header).getInt() == DefaultPlayground.BINARY_MAGIC;
+    }
+
     /**
      * Build the playground from an input stream. Each line in that stream
      * represents one row on the playground. Each '#' in that line represents a
@@ -355,6 +518,10 @@ public abstract class GameController implements Game {
      * a possible starting position for a worm. (Starting positions also can be
      * moved into.) Any other sign, other than a line break, will result in an
      * exception.
+     *
+     * <p>
+     * Streams in the binary format, see {@link PlaygroundConverter}, are detected automatically.
+     * </p>
      * 
      * @param name
      *            Name for the new playground.
@@ -364,13 +531,56 @@ public abstract class GameController implements Game {
      */
     @Override
     public Playground buildPlayground(final String name, final InputStream source) {
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(source))) {
+        try (final BufferedInputStream bis = new BufferedInputStream(source)) {
+            bis.mark(4);
+            final byte[] header = new byte[4];
+            final int read = bis.read(header);
+            bis.reset();
+            if (read == header.length && GameController.isBinaryPlayground(header)) {
+                final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                final byte[] chunk = new byte[8192];
+                int length;
+                while ((length = bis.read(chunk)) > 0) {
+                    bos.write(chunk, 0, length);
+                }
+                return DefaultPlayground.fromBinary(name, ByteBuffer.wrap(bos.toByteArray()));
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(bis));
             final List<String> lines = reader.lines().collect(Collectors.toList());
             Collections.reverse(lines); // this way, 0,0 is bottom left
-            return new DefaultPlayground(name, lines);
+            return DefaultPlayground.fromText(name, lines);
+        } catch (final Exception ex) {
+            throw new IllegalStateException("Cannot read playground " + name, ex);
+        }
+    }
+
+    /**
+     * Build the playground from a file. Files in the binary format, see {@link PlaygroundConverter}, are
+     * memory-mapped and used without any parsing. Other files are read as described in
+     * {@link #buildPlayground(String, InputStream)}.
+     *
+     * @param name
+     *            Name for the new playground.
+     * @param source
+     *            File in question.
+     * @return Playground constructed from that file.
+     */
+    @Override
+    public Playground buildPlayground(final String name, final File source) {
+        try (final FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(4);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read until the header is full or the file ends
+            }
+            if (GameController.isBinaryPlayground(Arrays.copyOf(header.array(), header.position()))) {
+                // the mapping stays valid after the channel is closed
+                return DefaultPlayground.fromBinary(name, channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size()));
+            }
         } catch (final Exception ex) {
             throw new IllegalStateException("Cannot read playground " + name, ex);
         }
+        return Game.super.buildPlayground(name, source);
     }
 
 }
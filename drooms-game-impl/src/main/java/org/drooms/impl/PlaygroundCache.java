@@ -0,0 +1,351 @@
+package org.drooms.impl;
+
+import org.drooms.api.Game;
+import org.drooms.api.Playground;
+import org.drooms.impl.logic.DistanceOracle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide cache of parsed playgrounds. Every playground file is only parsed once for every {@link Game}
+ * implementation, no matter how many games are played on it; {@link Playground}s are immutable and are shared by all
+ * those games, together with whatever they compute lazily.
+ *
+ * <p>
+ * Playgrounds are keyed by the path of the file. An entry is only reused while the SHA-256 hash of the file's contents
+ * stays the same; a changed file is parsed again and replaces the old entry. The file is only hashed again when its
+ * modification time or length change, or when it was last checked within the same second as it was modified, since a
+ * change made within that second would not show in the modification time.
+ * </p>
+ *
+ * <p>
+ * Static distances between the nodes of playgrounds are kept here too, see {@link #getDistances(Playground)}.
+ * </p>
+ */
+public class PlaygroundCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlaygroundCache.class);
+
+    private static final PlaygroundCache INSTANCE = new PlaygroundCache();
+
+    /**
+     * Distances are persisted next to the playground, in a file with the same name and this suffix.
+     */
+    static final String DISTANCES_SUFFIX = ".distances";
+
+    /**
+     * How many playgrounds that did not come from this cache get to keep their distances.
+     */
+    private static final int MAX_UNCACHED_DISTANCES = 16;
+
+    /**
+     * Return the single process-wide instance of this class.
+     *
+     * @return The instance.
+     */
+    public static PlaygroundCache getInstance() {
+        return PlaygroundCache.INSTANCE;
+    }
+
+    private static byte[] sha256(final File file) throws IOException {
+        try (final InputStream is = new FileInputStream(file)) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] chunk = new byte[8192];
+            int length;
+            while ((length = is.read(chunk)) > 0) {
+                digest.update(chunk, 0, length);
+            }
+            return digest.digest();
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported by the JVM.", ex);
+        }
+    }
+
+    /**
+     * Distances of a single playground, computed only once. Failures are never cached.
+     */
+    private static final class Distances {
+
+        private final File file;
+        private final byte[] hash;
+        private FutureTask<DistanceOracle> distances;
+
+        /**
+         * @param file
+         *            Playground file, next to which the distances are persisted. Null to keep them in memory.
+         * @param hash
+         *            Hash of the playground file.
+         */
+        public Distances(final File file, final byte[] hash) {
+            this.file = file;
+            this.hash = hash;
+        }
+
+        private DistanceOracle compute(final Playground playground) {
+            if (this.file == null) {
+                return DistanceOracle.compute(playground);
+            }
+            final File target = new File(this.file.getPath() + PlaygroundCache.DISTANCES_SUFFIX);
+            return DistanceOracle.load(playground, target, this.hash);
+        }
+
+        public DistanceOracle get(final Playground playground) {
+            final FutureTask<DistanceOracle> result;
+            synchronized (this) {
+                if (this.distances == null) {
+                    this.distances = new FutureTask<>(() -> this.compute(playground));
+                }
+                result = this.distances;
+            }
+            result.run(); // only the first call actually computes
+            try {
+                return result.get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for distances of " + playground.getName()
+                        + ".", ex);
+            } catch (final ExecutionException ex) {
+                synchronized (this) {
+                    if (this.distances == result) {
+                        this.distances = null;
+                    }
+                }
+                throw new IllegalStateException("Failed computing distances of " + playground.getName() + ".", ex
+                        .getCause());
+            }
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private final long checked;
+        private final byte[] hash;
+        private final Future<Playground> playground;
+        private final Distances distances;
+
+        public Entry(final File file, final long lastModified, final long length, final long checked, final byte[]
+                hash, final Future<Playground> playground, final Distances distances) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checked = checked;
+            this.hash = hash;
+            this.playground = playground;
+            this.distances = distances;
+        }
+
+        /**
+         * The same playground, with the file found unchanged at a later time.
+         */
+        public Entry checkedAgain(final long lastModified, final long length, final long checked) {
+            return new Entry(this.file, lastModified, length, checked, this.hash, this.playground, this.distances);
+        }
+
+        public boolean isCurrent(final byte[] hash) {
+            return Arrays.equals(this.hash, hash);
+        }
+
+        public boolean isUnchanged(final long lastModified, final long length) {
+            // file system timestamps are not precise enough to tell changes within the second of the last check
+            return this.lastModified == lastModified && this.length == length && TimeUnit.MILLISECONDS.toSeconds
+                    (this.checked) > TimeUnit.MILLISECONDS.toSeconds(lastModified);
+        }
+
+    }
+
+    private final ConcurrentMap<String, Entry> playgrounds = new ConcurrentHashMap<>();
+    /**
+     * Distances of the parsed playgrounds in {@link #playgrounds}, by the identity of the playground.
+     */
+    private final Map<Playground, Distances> owned = new IdentityHashMap<>();
+    /**
+     * Distances of the playgrounds built elsewhere, least recently used first.
+     */
+    private final Map<Playground, Distances> uncached = new LinkedHashMap<Playground, Distances>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Playground, Distances> eldest) {
+            return this.size() > PlaygroundCache.MAX_UNCACHED_DISTANCES;
+        }
+
+    };
+
+    PlaygroundCache() {
+        // use the shared instance instead
+    }
+
+    /**
+     * Forget all the playgrounds.
+     */
+    public void clear() {
+        synchronized (this.owned) {
+            this.playgrounds.clear();
+            this.owned.clear();
+        }
+        synchronized (this.uncached) {
+            this.uncached.clear();
+        }
+    }
+
+    private void own(final String key, final Distances distances, final Playground playground) {
+        synchronized (this.owned) {
+            // the file may have changed while it was being parsed
+            final Entry current = this.playgrounds.get(key);
+            if (current != null && current.distances == distances) {
+                this.owned.put(playground, distances);
+            }
+        }
+    }
+
+    private void disown(final Entry entry) {
+        // the playground may still be being parsed, so it is found by its distances
+        synchronized (this.owned) {
+            this.owned.values().remove(entry.distances);
+        }
+    }
+
+    /**
+     * Retrieve the parsed playground, parsing it if necessary. When multiple threads ask for the same playground at
+     * the same time, only one of them will parse it and the others will wait for the result. Failures are never
+     * cached.
+     *
+     * @param game
+     *            Game implementation that will parse the playground.
+     * @param file
+     *            The playground file. Its name will become the name of the playground.
+     * @return The playground.
+     */
+    public Playground get(final Class<? extends Game> game, final File file) {
+        final String key;
+        try {
+            key = game.getName() + "@" + file.getCanonicalPath();
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Cannot read playground.", ex);
+        }
+        // the time of the check must not be later than the time the file is looked at
+        final long checked = System.currentTimeMillis();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        final Entry cached = this.playgrounds.get(key);
+        final Entry entry;
+        final FutureTask<Playground> parsing;
+        if (cached != null && cached.isUnchanged(lastModified, length)) {
+            entry = cached;
+            parsing = null;
+        } else {
+            final byte[] hash;
+            try {
+                hash = PlaygroundCache.sha256(file);
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Cannot read playground.", ex);
+            }
+            final Distances distances = new Distances(file, hash);
+            parsing = new FutureTask<>(() -> {
+                final Playground result = this.parse(game, file);
+                // before the playground is handed out, so that nobody asks for its distances too early
+                this.own(key, distances, result);
+                return result;
+            });
+            final Entry[] replaced = new Entry[1];
+            entry = this.playgrounds.compute(key, (k, existing) -> {
+                if (existing != null && existing.isCurrent(hash)) {
+                    return existing.checkedAgain(lastModified, length, checked);
+                }
+                replaced[0] = existing;
+                return new Entry(file, lastModified, length, checked, hash, parsing, distances);
+            });
+            if (replaced[0] != null) {
+                this.disown(replaced[0]);
+            }
+        }
+        if (entry.playground == parsing) {
+            parsing.run();
+        }
+        try {
+            return entry.playground.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for playground " + file + ".", ex);
+        } catch (final ExecutionException ex) {
+            this.playgrounds.remove(key, entry);
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException("Failed parsing playground " + file + ".", cause);
+            }
+        }
+    }
+
+    private Playground parse(final Class<? extends Game> game, final File file) {
+        final long start = System.nanoTime();
+        try {
+            final Playground playground = game.newInstance().buildPlayground(file.getName(), file);
+            PlaygroundCache.LOGGER.info("Playground {} loaded in {} ms.", file.getName(), TimeUnit.NANOSECONDS
+                    .toMillis(System.nanoTime() - start));
+            return playground;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot find game class.", e);
+        }
+    }
+
+    /**
+     * Retrieve the static distances between the nodes of a playground, computing them only once per playground. For
+     * playgrounds from this cache, the distances are persisted next to the playground file and memory-mapped from there
+     * by every later run. Other playgrounds have their distances computed in memory, and only the most recently used of
+     * them keep them.
+     *
+     * <p>
+     * The first call may take long on large playgrounds and is best made before the game starts.
+     * </p>
+     *
+     * @param playground
+     *            The playground.
+     * @return The distances.
+     */
+    public DistanceOracle getDistances(final Playground playground) {
+        Distances distances;
+        synchronized (this.owned) {
+            distances = this.owned.get(playground);
+        }
+        if (distances == null) {
+            synchronized (this.uncached) {
+                distances = this.uncached.computeIfAbsent(playground, key -> new Distances(null, null));
+            }
+        }
+        return distances.get(playground);
+    }
+
+    /**
+     * How many playgrounds are currently cached.
+     *
+     * @return Number of playgrounds in the cache.
+     */
+    public int size() {
+        return this.playgrounds.size();
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.drooms.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts playgrounds from the text format to the binary format, which {@link GameController} memory-maps instead of
+ * parsing. See {@link DefaultPlayground} for the description of the binary format.
+ */
+public class PlaygroundConverter {
+
+    /**
+     * Convert a playground.
+     *
+     * @param source
+     *            Playground in the text format.
+     * @param target
+     *            Where to write the playground in the binary format. Will be overwritten.
+     */
+    public static void convert(final File source, final File target) {
+        final DefaultPlayground playground;
+        try (final InputStream is = new FileInputStream(source)) {
+            playground = (DefaultPlayground) new DefaultGame().buildPlayground(source.getName(), is);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Cannot read playground " + source, ex);
+        }
+        try (final OutputStream os = new FileOutputStream(target)) {
+            playground.writeBinary(os);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Cannot write playground " + target, ex);
+        }
+    }
+
+    /**
+     * Convert a playground from the command-line.
+     *
+     * @param args
+     *            The text playground to read and the binary playground to write.
+     */
+    public static void main(final String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: " + PlaygroundConverter.class.getName() + " <text playground> <binary " +
+                    "playground>");
+            System.exit(-1);
+        }
+        PlaygroundConverter.convert(new File(args[0]), new File(args[1]));
+    }
+
+    private PlaygroundConverter() {
+        // prevent instantiation
+    }
+
+}
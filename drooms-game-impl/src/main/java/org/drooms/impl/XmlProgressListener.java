@@ -1,6 +1,7 @@
 package org.drooms.impl;
 
 import org.drooms.api.*;
+import org.drooms.impl.logic.DecisionTimeListener;
 import org.drooms.impl.util.GameProperties;
 import org.drooms.impl.util.XmlUtil;
 import org.slf4j.Logger;
@@ -11,8 +12,9 @@ import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-public class XmlProgressListener implements GameProgressListener {
+public class XmlProgressListener implements GameProgressListener, DecisionTimeListener {
 
     private static Logger logger = LoggerFactory.getLogger(XmlProgressListener.class);
 
@@ -29,13 +31,31 @@ public class XmlProgressListener implements GameProgressListener {
     }
 
     private final StringBuilder report = new StringBuilder();
+    private final StringBuilder warmUp = new StringBuilder();
 
     private int turnNumber = GameProperties.FIRST_TURN_NUMBER;
 
     private final Map<Player, Integer> playerPoints = new HashMap<>();
 
     public XmlProgressListener(final Playground p, final Collection<Player> players, final GameProperties gameConfig) {
-        this.report.append("<game>");
+        this(p, players, gameConfig, null);
+    }
+
+    /**
+     * Initialize the report.
+     *
+     * @param p
+     *            The playground on which the game is played.
+     * @param players
+     *            The players taking part in the game.
+     * @param gameConfig
+     *            Configuration of the game.
+     * @param seed
+     *            Seed the game was played with, so that it can be replayed. Null if not known.
+     */
+    public XmlProgressListener(final Playground p, final Collection<Player> players, final GameProperties gameConfig,
+            final Long seed) {
+        this.report.append(seed == null ? "<game>" : "<game seed='" + seed + "'>");
         // report game config
         this.report.append("<config>");
         for (final Map.Entry<Object, Object> pair : gameConfig.getTextEntries()) {
@@ -97,6 +117,22 @@ public class XmlProgressListener implements GameProgressListener {
         this.report.append("</removedCollectible>");
     }
 
+    @Override
+    public void decisionTimed(final Player p, final long wallTimeInNanos, final long cpuTimeInNanos) {
+        this.report.append("<decisionTime wallMicros='" + TimeUnit.NANOSECONDS.toMicros(wallTimeInNanos) +
+                "' cpuMicros='" + TimeUnit.NANOSECONDS.toMicros(cpuTimeInNanos) + "'>");
+        this.report.append(XmlProgressListener.playerXml(p));
+        this.report.append("</decisionTime>");
+    }
+
+    @Override
+    public void warmUpTimed(final Player p, final int turns, final long wallTimeInNanos) {
+        this.warmUp.append("<warmUpTime turns='" + turns + "' wallMicros='" + TimeUnit.NANOSECONDS.toMicros
+                (wallTimeInNanos) + "'>");
+        this.warmUp.append(XmlProgressListener.playerXml(p));
+        this.warmUp.append("</warmUpTime>");
+    }
+
     @Override
     public void nextTurn() {
         if (this.turnNumber > GameProperties.FIRST_TURN_NUMBER) {
@@ -145,6 +181,9 @@ public class XmlProgressListener implements GameProgressListener {
             result.append("</turn>");
         }
         result.append("</turns>");
+        if (this.warmUp.length() > 0) {
+            result.append("<warmUp>").append(this.warmUp).append("</warmUp>");
+        }
         result.append("<results>");
         for (final Map.Entry<Player, Integer> entry : this.playerPoints.entrySet()) {
             result.append("<score points='" + entry.getValue() + "'>");
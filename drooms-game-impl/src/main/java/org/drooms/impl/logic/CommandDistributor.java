@@ -5,9 +5,15 @@ import org.drooms.api.GameProgressListener;
 import org.drooms.api.Player;
 import org.drooms.api.Playground;
 import org.drooms.impl.GameController;
+import org.drooms.impl.PlayerPosition;
 import org.drooms.impl.logic.commands.Command;
 import org.drooms.impl.logic.commands.DeactivatePlayerCommand;
+import org.drooms.impl.logic.commands.PlayerActionCommand;
+import org.drooms.impl.logic.facts.TurnDelta;
 import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameProperties.DecisionMode;
+import org.drooms.impl.util.GameProperties.TimeoutMode;
+import org.drooms.impl.util.GameScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,13 +30,95 @@ public class CommandDistributor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CommandDistributor.class);
 
+    private static <T> T await(final Future<T> preparation) {
+        try {
+            return preparation.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while passing changes to players.", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Failed passing changes to players.", e.getCause());
+        }
+    }
+
+    private static Action getDecisionOnTimeout(final Player player, final DecisionMaker decisionMaker,
+            final TimeBox timeBox) {
+        if (timeBox.isExpiredBySafetyNet()) {
+            CommandDistributor.LOGGER.warn("Player {} was stopped by the clock after {} ms, not by its budget.",
+                    player.getName(), TimeUnit.NANOSECONDS.toMillis(decisionMaker.getWallTime()));
+        }
+        final Action latest = decisionMaker.getLatestDecision();
+        if (latest == null) {
+            CommandDistributor.LOGGER.info("Player {} didn't reach a decision in time, STAY forced.",
+                    player.getName());
+            return Action.NOTHING;
+        } else {
+            CommandDistributor.LOGGER.info("Player {} ran out of time, latest decision {} used.", player.getName(),
+                    latest);
+            return latest;
+        }
+    }
+
+    /**
+     * Build the sessions for all the players at once, on the scheduler's workers.
+     *
+     * @return Sessions in the order of players.
+     */
+    private static Map<Player, DecisionMaker> createDecisionMakers(final Playground playground,
+            final Collection<Player> players, final GameProperties properties, final File reportFolder,
+            final ExecutorService setup) {
+        final long start = System.nanoTime();
+        final Map<Player, Future<DecisionMaker>> futures = new LinkedHashMap<>();
+        players.forEach(player -> futures.put(player, setup.submit(() -> {
+            final long playerStart = System.nanoTime();
+            final DecisionMaker decisionMaker = new DecisionMaker(playground, player, properties, reportFolder);
+            CommandDistributor.LOGGER.info("Player {} set up in {} ms.", player.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - playerStart));
+            return decisionMaker;
+        })));
+        final Map<Player, DecisionMaker> decisionMakers = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<Player, Future<DecisionMaker>> entry : futures.entrySet()) {
+                try {
+                    decisionMakers.put(entry.getKey(), entry.getValue().get());
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while setting up players.", e);
+                } catch (final ExecutionException e) {
+                    throw new IllegalStateException("Failed setting up player " + entry.getKey().getName() + ".",
+                            e.getCause());
+                }
+            }
+        } catch (final RuntimeException ex) {
+            // don't leak the sessions that were built successfully
+            futures.values().forEach(future -> future.cancel(true));
+            futures.values().forEach(future -> {
+                try {
+                    future.get().terminate();
+                } catch (final InterruptedException | ExecutionException | CancellationException ignored) {
+                    // nothing to terminate
+                }
+            });
+            throw ex;
+        }
+        CommandDistributor.LOGGER.info("All {} players set up in {} ms.", players.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return decisionMakers;
+    }
+
     private final Map<Player, DecisionMaker> players = new LinkedHashMap<>();
     private final List<GameProgressListener> listeners = new LinkedList<>();
 
-    private final int playerTimeoutInSeconds;
+    private final long playerTimeoutInNanos;
+    private final TimeoutMode timeoutMode;
+    private final DecisionMode decisionMode;
+    private final Playground playground;
+    private final GameProperties properties;
 
-    private final ExecutorService e = Executors.newFixedThreadPool(1);
+    private final GameScheduler scheduler;
     private final List<Command> commands = new LinkedList<>();
+    private final Map<Player, CompletableFuture<?>> running = new HashMap<>();
+    private final Map<Player, TimeBox> timeBoxes = new ConcurrentHashMap<>();
 
     /**
      * Initialize the class.
@@ -45,18 +133,96 @@ public class CommandDistributor {
      *            Configuration of the game.
      * @param reportFolder
      *            Where to report to.
-     * @param playerTimeoutInSeconds
-     *            How much time the player strategies should be given to make
-     *            move decisions.
+     */
+    public CommandDistributor(final Playground playground, final Collection<Player> players,
+            final GameProgressListener report, final GameProperties properties, final File reportFolder) {
+        this(playground, players, report, properties, reportFolder, GameScheduler.getDefault());
+    }
+
+    /**
+     * Initialize the class.
+     *
+     * @param playground
+     *            The playground on which the game is happening.
+     * @param players
+     *            The players taking part in the game.
+     * @param report
+     *            The game listener.
+     * @param properties
+     *            Configuration of the game.
+     * @param reportFolder
+     *            Where to report to.
+     * @param scheduler
+     *            Where to run the strategies. Shared with other games; no threads are created for this one.
      */
     public CommandDistributor(final Playground playground, final Collection<Player> players,
             final GameProgressListener report, final GameProperties properties, final File reportFolder,
-            final int playerTimeoutInSeconds) {
-        players.forEach(player -> {
-            this.players.put(player, new DecisionMaker(playground, player, properties, reportFolder));
-        });
+            final GameScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.players.putAll(CommandDistributor.createDecisionMakers(playground, players, properties, reportFolder,
+                scheduler.getWorkers()));
         this.listeners.add(report);
-        this.playerTimeoutInSeconds = playerTimeoutInSeconds;
+        this.playground = playground;
+        this.properties = properties;
+        this.playerTimeoutInNanos = TimeUnit.MILLISECONDS.toNanos(properties.getStrategyTimeoutInMillis());
+        this.timeoutMode = properties.getTimeoutMode();
+        this.decisionMode = properties.getDecisionMode();
+    }
+
+    /**
+     * Run every player's strategy through a number of synthetic turns, so that the Drools constraints are compiled
+     * and the JIT has kicked in before the game starts. The turns are played on scratch sessions, which are discarded
+     * afterwards; the players' actual sessions are not affected. Strategies are warmed up in parallel, each of them
+     * still limited by the timeout in every turn.
+     *
+     * @param turns
+     *            How many turns to play.
+     * @param positions
+     *            Positions of the worms at the start of the game. The worms will not move during the warm-up.
+     */
+    public void warmUp(final int turns, final Collection<PlayerPosition> positions) {
+        final TurnDelta.Builder builder = new TurnDelta.Builder();
+        positions.forEach(position -> new PlayerActionCommand(Action.NOTHING, position).perform(builder));
+        final TurnDelta delta = builder.build();
+        final ScheduledExecutorService timer = this.scheduler.getTimer();
+        final long start = System.nanoTime();
+        final Map<Player, Future<Long>> warmUps = new LinkedHashMap<>();
+        try {
+            this.players.keySet().forEach(player -> warmUps.put(player, this.scheduler.getWorkers().submit(() -> {
+                final long playerStart = System.nanoTime();
+                final DecisionMaker scratch = new DecisionMaker(this.playground, player, this.properties, null);
+                try {
+                    for (int turn = 0; turn < turns; turn++) {
+                        scratch.apply(delta);
+                        scratch.commit();
+                        final ScheduledFuture<?> timeout = timer.schedule(scratch::halt, this.playerTimeoutInNanos,
+                                TimeUnit.NANOSECONDS);
+                        try {
+                            scratch.call();
+                        } finally {
+                            timeout.cancel(false);
+                        }
+                    }
+                } finally {
+                    scratch.terminate();
+                }
+                final long playerTime = System.nanoTime() - playerStart;
+                CommandDistributor.LOGGER.info("Player {} warmed up in {} ms.", player.getName(),
+                        TimeUnit.NANOSECONDS.toMillis(playerTime));
+                return playerTime;
+            })));
+            warmUps.values().forEach(CommandDistributor::await);
+        } finally {
+            warmUps.values().forEach(warmUp -> warmUp.cancel(true));
+        }
+        // reported in the order of players, once all of them are done
+        warmUps.forEach((player, warmUp) -> {
+            final long playerTime = CommandDistributor.await(warmUp);
+            this.listeners.stream().filter(listener -> listener instanceof DecisionTimeListener).forEach(listener ->
+                    ((DecisionTimeListener) listener).warmUpTimed(player, turns, playerTime));
+        });
+        CommandDistributor.LOGGER.info("Warm-up of {} turns took {} ms.", turns,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
     /**
@@ -75,49 +241,329 @@ public class CommandDistributor {
     }
 
     /**
-     * Execute the commands.
-     * 
-     * @return Strategy decisions.
+     * Report the commands to the listeners and package them for the players.
+     *
+     * @return Changes that happened in this turn.
      */
-    public Map<Player, Action> execute() {
-        // hint GC to potentially not interrupt decision making later
-        System.gc();
+    private TurnDelta beginTurn() {
         CommandDistributor.LOGGER.info("Starting processing next turn.");
         this.listeners.forEach(listener -> listener.nextTurn());
         this.commands.forEach(command -> {
             CommandDistributor.LOGGER.info("Will process command: {}", command);
             this.listeners.forEach(listener -> command.report(listener));
         });
+        // all the changes of the turn are packaged once and shared by all the players
+        final TurnDelta.Builder builder = new TurnDelta.Builder();
+        this.commands.forEach(command -> command.perform(builder));
+        this.commands.clear();
+        return builder.build();
+    }
+
+    /**
+     * Execute the commands.
+     * 
+     * @return Strategy decisions, in the order in which the players were given to this class.
+     */
+    public Map<Player, Action> execute() {
+        final TurnDelta delta = this.beginTurn();
         CommandDistributor.LOGGER.info("Now passing these changes to players.");
-        final Map<Player, Action> moves = new HashMap<>();
-        this.players.forEach((player, decisionMaker) -> {
-            CommandDistributor.LOGGER.debug("Processing player {}.", player.getName());
-            // send commands to the player's strategy
-            this.commands.forEach(command -> command.perform(decisionMaker));
-            decisionMaker.commit();
-            // begin the time-box for a player strategy to make decisions
+        final Map<Player, Action> moves;
+        switch (this.decisionMode) {
+            case PARALLEL:
+                moves = this.decideInParallel(delta);
+                break;
+            case PIPELINED:
+                moves = this.decideInPipeline(delta);
+                break;
+            default:
+                moves = this.decideSequentially(delta);
+        }
+        this.finishDecisions();
+        CommandDistributor.LOGGER.info("Turn processed completely.");
+        return Collections.unmodifiableMap(moves);
+    }
+
+    /**
+     * Execute the commands without blocking the calling thread. All the players are prepared as separate tasks on the
+     * scheduler and then decide on its workers, each with its own time limit starting when its decision actually
+     * starts. Decision mode of the game does not apply here.
+     *
+     * @return Strategy decisions, in the order in which the players were given to this class.
+     */
+    public CompletableFuture<Map<Player, Action>> executeAsync() {
+        final TurnDelta delta = this.beginTurn();
+        CommandDistributor.LOGGER.info("Now passing these changes to players.");
+        final Map<Player, CompletableFuture<Action>> decisions = new LinkedHashMap<>();
+        this.players.forEach((player, decisionMaker) -> decisions.put(player, this.decideAsync(player,
+                decisionMaker, delta)));
+        return CompletableFuture.allOf(decisions.values().toArray(new CompletableFuture<?>[decisions.size()]))
+                .thenApply(done -> {
+                    // merge the decisions in the order of players
+                    final Map<Player, Action> moves = new LinkedHashMap<>();
+                    decisions.forEach((player, decision) -> moves.put(player, decision.join()));
+                    this.finishDecisions();
+                    CommandDistributor.LOGGER.info("Turn processed completely.");
+                    return Collections.unmodifiableMap(moves);
+                });
+    }
+
+    private CompletableFuture<Action> decideAsync(final Player player, final DecisionMaker decisionMaker,
+            final TurnDelta delta) {
+        final CompletableFuture<Action> decision = new CompletableFuture<>();
+        // a strategy that ran out of time may still be winding down; the session must not be touched until it has
+        final CompletableFuture<Void> current = this.settled(player).thenRunAsync(() ->
+                this.prepare(player, decisionMaker, delta), this.scheduler.getExecutor()).thenRunAsync(() -> {
+            // begin the time-box for a player strategy to make decisions; the strategy blocks a worker, not the game
             CommandDistributor.LOGGER.debug("Starting time-box for player {}.", player.getName());
-            final Future<Action> move = this.e.submit(decisionMaker);
+            final TimeBox timeBox = this.startTimeBox(player, decisionMaker);
+            this.watch(player, decisionMaker, timeBox, decision);
             try {
-                moves.put(player, move.get(this.playerTimeoutInSeconds, TimeUnit.SECONDS));
-            } catch (InterruptedException | ExecutionException e) {
-                CommandDistributor.LOGGER.warn("Player {} error during decision-making, STAY forced.",
-                        player.getName(), e);
-                moves.put(player, Action.NOTHING);
-            } catch (final TimeoutException e) {
-                CommandDistributor.LOGGER.info("Player {} didn't reach a decision in time, STAY forced.",
-                        player.getName());
-                moves.put(player, Action.NOTHING);
+                decision.complete(decisionMaker.call());
             } finally {
-                move.cancel(true);
-                decisionMaker.halt(); // otherwise other players' could be slowed down
+                timeBox.close();
+                decisionMaker.halt(); // the same as in the blocking modes
+                CommandDistributor.LOGGER.debug("Player {} processed.", player.getName());
             }
+        }, this.scheduler.getWorkers());
+        current.exceptionally(ex -> {
+            if (decision.complete(Action.NOTHING)) {
+                CommandDistributor.LOGGER.warn("Player {} error during decision-making, STAY forced.",
+                        player.getName(), ex);
+            }
+            return null;
+        });
+        this.running.put(player, current);
+        return decision;
+    }
+
+    /**
+     * Send this turn's changes to the player's strategy and prepare it for making the decision.
+     *
+     * @param player
+     *            Player in question.
+     * @param decisionMaker
+     *            The player's strategy.
+     * @param delta
+     *            Changes that happened in this turn.
+     */
+    private void prepare(final Player player, final DecisionMaker decisionMaker, final TurnDelta delta) {
+        CommandDistributor.LOGGER.debug("Processing player {}.", player.getName());
+        decisionMaker.apply(delta);
+        decisionMaker.commit();
+    }
+
+    /**
+     * Enforce the time-box on the timer, without holding any thread while the strategy is deciding.
+     *
+     * @param player
+     *            Player in question.
+     * @param decisionMaker
+     *            The player's strategy.
+     * @param timeBox
+     *            The time-box to enforce.
+     * @param decision
+     *            Will be completed with STAY when the time-box expires before the strategy decides.
+     */
+    private void watch(final Player player, final DecisionMaker decisionMaker, final TimeBox timeBox,
+            final CompletableFuture<Action> decision) {
+        this.scheduler.getTimer().schedule(() -> {
+            if (decision.isDone()) {
+                return;
+            } else if (!timeBox.isExpired()) {
+                this.watch(player, decisionMaker, timeBox, decision);
+            } else if (decision.complete(CommandDistributor.getDecisionOnTimeout(player, decisionMaker, timeBox))) {
+                timeBox.close();
+                decisionMaker.halt();
+            }
+        }, Math.max(0, timeBox.getCheckInterval()), TimeUnit.NANOSECONDS);
+    }
+
+    private TimeBox startTimeBox(final Player player, final DecisionMaker decisionMaker) {
+        // with the time bank, the strategy can use everything that it has saved
+        final long budget = decisionMaker.isTimeBankEnabled() ? decisionMaker.getTimeBank() :
+                this.playerTimeoutInNanos;
+        final TimeBox timeBox = new TimeBox(decisionMaker, this.timeoutMode, budget,
+                GcPauseTracker.getInstance());
+        this.timeBoxes.put(player, timeBox);
+        return timeBox;
+    }
+
+    /**
+     * Account for the time the players spent on their decisions in this turn. Time lost to garbage collection pauses
+     * is not charged to the players.
+     */
+    private void finishDecisions() {
+        long totalGcPause = 0;
+        for (final Map.Entry<Player, DecisionMaker> entry : this.players.entrySet()) {
+            final Player player = entry.getKey();
+            final DecisionMaker decisionMaker = entry.getValue();
+            final TimeBox timeBox = this.timeBoxes.remove(player);
+            final long gcPause = timeBox == null ? 0 : timeBox.getGcPauseInNanos();
+            if (gcPause > 0) {
+                CommandDistributor.LOGGER.info("Player {} had its time-box extended by {} ms due to GC pauses.",
+                        player.getName(), TimeUnit.NANOSECONDS.toMillis(gcPause));
+                totalGcPause += gcPause;
+            }
+            final long wallTime = decisionMaker.getWallTime();
+            final long cpuTime = decisionMaker.getCpuTime();
+            if (decisionMaker.isTimeBankEnabled()) {
+                decisionMaker.chargeTime(this.timeoutMode == TimeoutMode.CPU ? cpuTime : Math.max(0, wallTime -
+                        gcPause));
+            }
+            this.listeners.stream().filter(listener -> listener instanceof DecisionTimeListener).forEach(listener ->
+                    ((DecisionTimeListener) listener).decisionTimed(player, wallTime, cpuTime));
+        }
+        if (totalGcPause > 0) {
+            CommandDistributor.LOGGER.info("GC pauses extended time-boxes by {} ms in total this turn.",
+                    TimeUnit.NANOSECONDS.toMillis(totalGcPause));
+        }
+    }
+
+    /**
+     * Wait until whatever was last run on the player's session has finished, successfully or not.
+     *
+     * @param player
+     *            Player in question.
+     * @return Completes once the session can be touched again.
+     */
+    private CompletableFuture<?> settled(final Player player) {
+        return this.running.getOrDefault(player, CompletableFuture.completedFuture(null)).handle((result, ex) ->
+                null);
+    }
+
+    /**
+     * Let the player's strategy decide on one of the workers, once it has been prepared. The time-box only starts
+     * when the decision does, so that waiting for a free worker is not charged to the player. The decision is
+     * recorded as running, so that the session is not touched again until the strategy has wound down.
+     *
+     * @param player
+     *            Player in question.
+     * @param decisionMaker
+     *            The player's strategy.
+     * @param preparation
+     *            Completes when the strategy is ready to decide.
+     * @param timeBox
+     *            Will be completed with the time-box once the decision starts.
+     * @return The decision being made.
+     */
+    private CompletableFuture<Action> submit(final Player player, final DecisionMaker decisionMaker,
+            final CompletableFuture<?> preparation, final CompletableFuture<TimeBox> timeBox) {
+        final CompletableFuture<Action> move = preparation.thenApplyAsync(prepared -> {
+            // begin the time-box for a player strategy to make decisions
+            CommandDistributor.LOGGER.debug("Starting time-box for player {}.", player.getName());
+            timeBox.complete(this.startTimeBox(player, decisionMaker));
+            return decisionMaker.call();
+        }, this.scheduler.getWorkers());
+        move.whenComplete((result, ex) -> {
+            if (ex != null) { // the decision never started
+                timeBox.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+            }
+        });
+        this.running.put(player, move);
+        return move;
+    }
+
+    /**
+     * Wait for the player's strategy to reach a decision, but not longer than its time-box allows. Whatever happens,
+     * the strategy will be halted afterwards.
+     *
+     * @param player
+     *            Player in question.
+     * @param decisionMaker
+     *            The player's strategy.
+     * @param move
+     *            The decision being made.
+     * @param started
+     *            The time-box in which the decision must be made, once the decision has started.
+     * @return The decision. If not reached in time, the latest decision that the strategy sent, or STAY if none.
+     */
+    private Action collectDecision(final Player player, final DecisionMaker decisionMaker, final Future<Action> move,
+            final Future<TimeBox> started) {
+        final TimeBox timeBox = CommandDistributor.await(started);
+        try {
+            while (true) {
+                try {
+                    return move.get(Math.max(0, timeBox.getCheckInterval()), TimeUnit.NANOSECONDS);
+                } catch (final TimeoutException ex) {
+                    if (timeBox.isExpired()) {
+                        throw ex;
+                    }
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            CommandDistributor.LOGGER.warn("Player {} error during decision-making, STAY forced.",
+                    player.getName(), e);
+            return Action.NOTHING;
+        } catch (final TimeoutException e) {
+            return CommandDistributor.getDecisionOnTimeout(player, decisionMaker, timeBox);
+        } finally {
+            timeBox.close();
+            // the strategy winds down on its own; the next turn waits for it through the running decisions
+            decisionMaker.halt(); // otherwise other players' could be slowed down
             // end the time-box for a player strategy
             CommandDistributor.LOGGER.debug("Player {} processed.", player.getName());
+        }
+    }
+
+    private Map<Player, Action> decideSequentially(final TurnDelta delta) {
+        final Map<Player, Action> moves = new LinkedHashMap<>();
+        this.players.forEach((player, decisionMaker) -> {
+            CommandDistributor.await(this.settled(player));
+            this.prepare(player, decisionMaker, delta);
+            final CompletableFuture<TimeBox> timeBox = new CompletableFuture<>();
+            final Future<Action> move = this.submit(player, decisionMaker, CompletableFuture.completedFuture(null),
+                    timeBox);
+            moves.put(player, this.collectDecision(player, decisionMaker, move, timeBox));
         });
-        commands.clear();
-        CommandDistributor.LOGGER.info("Turn processed completely.");
-        return Collections.unmodifiableMap(moves);
+        return moves;
+    }
+
+    private Map<Player, Action> decideInPipeline(final TurnDelta delta) {
+        // the players are prepared in order, one at a time, each of them ahead of its decision
+        final Map<Player, CompletableFuture<?>> preparations = new LinkedHashMap<>();
+        CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+        for (final Map.Entry<Player, DecisionMaker> entry : this.players.entrySet()) {
+            final Player player = entry.getKey();
+            previous = CompletableFuture.allOf(previous, this.settled(player)).thenRunAsync(() -> this.prepare(player,
+                    entry.getValue(), delta), this.scheduler.getWorkers());
+            preparations.put(player, previous);
+            this.running.put(player, previous);
+        }
+        // the decisions are still made one at a time, each of them once its player has been prepared
+        final Map<Player, Action> moves = new LinkedHashMap<>();
+        preparations.forEach((player, preparation) -> {
+            final DecisionMaker decisionMaker = this.players.get(player);
+            final CompletableFuture<TimeBox> timeBox = new CompletableFuture<>();
+            final Future<Action> move = this.submit(player, decisionMaker, preparation, timeBox);
+            moves.put(player, this.collectDecision(player, decisionMaker, move, timeBox));
+        });
+        return moves;
+    }
+
+    private Map<Player, Action> decideInParallel(final TurnDelta delta) {
+        // send commands to all the player strategies at once
+        final List<CompletableFuture<?>> preparations = new ArrayList<>();
+        this.players.forEach((player, decisionMaker) -> {
+            final CompletableFuture<?> preparation = this.settled(player).thenRunAsync(() -> this.prepare(player,
+                    decisionMaker, delta), this.scheduler.getWorkers());
+            preparations.add(preparation);
+            this.running.put(player, preparation);
+        });
+        final CompletableFuture<Void> prepared = CompletableFuture.allOf(preparations.toArray(new
+                CompletableFuture<?>[preparations.size()]));
+        // begin the time-boxes for all the player strategies, each with its own deadline
+        final Map<Player, Future<Action>> decisions = new LinkedHashMap<>();
+        final Map<Player, Future<TimeBox>> started = new HashMap<>();
+        this.players.forEach((player, decisionMaker) -> {
+            final CompletableFuture<TimeBox> timeBox = new CompletableFuture<>();
+            decisions.put(player, this.submit(player, decisionMaker, prepared, timeBox));
+            started.put(player, timeBox);
+        });
+        // merge the decisions in the order of players
+        final Map<Player, Action> moves = new LinkedHashMap<>();
+        decisions.forEach((player, move) -> moves.put(player, this.collectDecision(player, this.players.get(player),
+                move, started.get(player))));
+        return moves;
     }
 
     public GameProgressListener getReport() {
@@ -126,13 +572,17 @@ public class CommandDistributor {
 
     /**
      * Clean up when the game is over. This instance shouldn't be used anymore
-     * after this method is called. Not calling this method after the game may
-     * result in the JVM not terminating, since the executors will still be
-     * active.
+     * after this method is called. Not calling this method after the game will
+     * leak the players' sessions.
      */
     public void terminate() {
-        this.players.forEach((player, decisionMaker) -> decisionMaker.terminate());
-        this.e.shutdownNow();
+        this.players.forEach((player, decisionMaker) -> {
+            final CompletableFuture<?> running = this.running.remove(player);
+            if (running != null) {
+                running.handle((result, ex) -> null).join(); // wait for the halted strategy to wind down
+            }
+            decisionMaker.terminate();
+        });
     }
 
     /**
@@ -161,6 +611,12 @@ public class CommandDistributor {
     private void removePlayer(Player player) {
         CommandDistributor.LOGGER.debug("Removing player {}.", player.getName());
         final DecisionMaker dm = this.players.remove(player);
-        dm.terminate();
+        // disposing of a large session takes time, which the turn shouldn't wait for
+        final CompletableFuture<?> running = this.running.remove(player);
+        if (running == null) {
+            this.scheduler.getWorkers().execute(dm::terminate);
+        } else {
+            running.handleAsync((result, ex) -> dm.terminate(), this.scheduler.getWorkers());
+        }
     }
 }
@@ -3,29 +3,37 @@ package org.drooms.impl.logic;
 import org.drools.core.time.SessionPseudoClock;
 import org.drooms.api.Action;
 import org.drooms.api.Node;
-import org.drooms.api.Node.Type;
 import org.drooms.api.Player;
 import org.drooms.api.Playground;
 import org.drooms.impl.logic.events.*;
 import org.drooms.impl.logic.facts.*;
 import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameProperties.TimeoutMode;
 import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
 import org.kie.api.logger.KieRuntimeLogger;
 import org.kie.api.runtime.Channel;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.ClassObjectFilter;
 import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.conf.ClockTypeOption;
-import org.kie.api.runtime.rule.EntryPoint;
 import org.kie.api.runtime.rule.FactHandle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -38,7 +46,10 @@ import java.util.stream.Collectors;
  * <p>
  * When submitted to an {@link java.util.concurrent.Executor}, the strategy should make a decision on the next move,
  * based on the current state of the working memory. This decision should be sent over the provided 'decision'
- * channel. If not sent, it will default to STAY. See {@link Action} for the various types of decisions.
+ * channel. If not sent, it will default to STAY. See {@link Action} for the various types of decisions. The strategy
+ * may change its mind as many times as it wants; whatever it has sent last is used, even if it runs out of time.
+ * Sending the decision over the 'final' channel instead ends the decision-making right away, freeing the time for
+ * other players.
  * </p>
  * <p>
  * This class enforces the following requirements on the strategies:
@@ -75,15 +86,48 @@ import java.util.stream.Collectors;
  * <li>{@link GameProperty}, many. Will never change or be removed.</li>
  * <li>{@link CurrentPlayer}, once. Will never change or be removed.</li>
  * <li>{@link CurrentTurn}, once. Will change with every turn.</li>
- * <li>{@link Wall}, many. Will remain constant over the whole game.</li>
+ * <li>{@link TimeBank}, once, only if enabled in {@link GameProperties}. Will change with every turn.</li>
+ * <li>{@link TurnDelta}, once. Will be replaced with every turn, holding all the events of that turn.</li>
+ * <li>{@link WallIndex}, once. Will remain constant over the whole game.</li>
+ * <li>{@link Wall}, many, only if enabled in {@link GameProperties}. Will remain constant over the whole game.</li>
  * <li>{@link Worm}, many. Will be added and removed as the worms will move, but never modified.</li>
  * </ul>
  * 
  */
-class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
+class DecisionMaker implements Channel, Callable<Action> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DecisionMaker.class);
 
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final String DEFAULT_ENTRY_POINT = "DEFAULT";
+    private static final String TURN_DELTA_ID = "turnDelta";
+
+    private static String getEntryPoint(final Object evt) {
+        if (evt instanceof PlayerActionEvent || evt instanceof PlayerDeathEvent) {
+            return "playerEvents";
+        } else if (evt instanceof CollectibleRewardEvent || evt instanceof SurvivalRewardEvent) {
+            return "rewardEvents";
+        } else {
+            return "gameEvents";
+        }
+    }
+
+    private static long getCpuTime(final Thread thread) {
+        final long time = DecisionMaker.THREADS.isThreadCpuTimeSupported() ? DecisionMaker.THREADS.getThreadCpuTime
+                (thread.getId()) : -1;
+        // without CPU accounting, the best approximation is the clock
+        return time < 0 ? System.nanoTime() : time;
+    }
+
+    private static void insertWorm(final Player player, final Node node, final Map<String, Worm> insertions,
+            final List<Command<?>> batch) {
+        final String id = "worm" + insertions.size();
+        final Worm worm = new Worm(player, node);
+        insertions.put(id, worm);
+        batch.add(KieServices.Factory.get().getCommands().newInsert(worm, id, false,
+                DecisionMaker.DEFAULT_ENTRY_POINT));
+    }
+
     private static void setGlobal(final KieSession session, final String global, final Object value) {
         try {
             session.setGlobal(global, value);
@@ -93,20 +137,30 @@ class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
     }
 
     private final FactHandle currentTurn;
-    private final EntryPoint gameEvents, playerEvents, rewardEvents;
+    private final FactHandle timeBankHandle;
+    private final long timeBankIncrement;
+    private final int ruleBudget;
+    private final Collection<String> entryPoints;
     private final Map<Player, Map<Node, FactHandle>> handles = new HashMap<>();
+    private final Map<Player, List<Node>> positions = new HashMap<>();
     private final boolean isDisposed = false;
     private final Player player;
     private final PathTracker tracker;
     private final KieSession session;
     private final KieRuntimeLogger sessionAudit;
 
-    private Action latestDecision = null;
+    private volatile Action latestDecision = null;
     private Node currentHead = null;
+    private FactHandle turnDelta = null;
+    private volatile Thread decisionThread = null;
+    private volatile long decisionStartCpuTime = 0, decisionStartWallTime = 0;
+    private volatile long cpuTime = 0, wallTime = 0;
+    private long timeBank = 0;
 
     public DecisionMaker(final Playground playground, final Player p, final GameProperties properties, final File
             reportFolder) {
         this.player = p;
+        this.ruleBudget = properties.getTimeoutMode() == TimeoutMode.RULES ? properties.getRuleBudget() : 0;
         final KieSessionConfiguration config = KieServices.Factory.get().newKieSessionConfiguration();
         config.setOption(ClockTypeOption.get("pseudo"));
         this.session = p.constructKieBase().newKieSession(config, null);
@@ -120,89 +174,143 @@ class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
         }
         // this is where we listen for decisions
         this.session.registerChannel("decision", this);
+        this.session.registerChannel("final", object -> {
+            this.send(object);
+            DecisionMaker.LOGGER.debug("Player {} has finished deciding.", this.player.getName());
+            this.session.halt();
+        });
         // this is where we will send events from the game
-        this.rewardEvents = this.session.getEntryPoint("rewardEvents");
-        this.gameEvents = this.session.getEntryPoint("gameEvents");
-        this.playerEvents = this.session.getEntryPoint("playerEvents");
+        this.entryPoints = this.session.getKieBase().getEntryPointIds();
         // configure the globals for the session
         this.tracker = new PathTracker(playground, p);
         DecisionMaker.setGlobal(this.session, "tracker", tracker);
         DecisionMaker.setGlobal(this.session, "logger",
                 LoggerFactory.getLogger("org.drooms.players." + p.getName()));
-        // insert playground walls
-        for (int x = -1; x <= playground.getWidth(); x++) {
-            for (int y = -1; y <= playground.getHeight(); y++) {
-                Node n = playground.getNodeAt(x, y);
-                if (n.getType() == Type.WALL) {
-                    this.session.insert(new Wall(n));
-                }
-            }
-        }
-        // insert info about the game configuration
-        this.session.insert(new GameProperty(GameProperty.Name.MAX_TURNS, properties.getMaximumTurns()));
-        this.session
-                .insert(new GameProperty(GameProperty.Name.MAX_INACTIVE_TURNS, properties.getMaximumInactiveTurns()));
-        this.session.insert(new GameProperty(GameProperty.Name.DEAD_WORM_BONUS, properties.getDeadWormBonus()));
-        this.session.insert(new GameProperty(GameProperty.Name.TIMEOUT_IN_SECONDS, properties
-                .getStrategyTimeoutInSeconds()));
+        // insert playground walls and info about the game configuration, shared with the other players
+        StaticFacts.get(playground, properties).insertInto(this.session);
         // insert info about the game status
         this.currentTurn = this.session.insert(new CurrentTurn(GameProperties.FIRST_TURN_NUMBER - 1));
         this.session.insert(new CurrentPlayer(p));
+        if (properties.isTimeBankEnabled()) {
+            this.timeBank = TimeUnit.MILLISECONDS.toNanos(properties.getTimeBankInMillis());
+            this.timeBankIncrement = TimeUnit.MILLISECONDS.toNanos(properties.getTimeBankIncrementInMillis());
+            this.timeBankHandle = this.session.insert(new TimeBank(properties.getTimeBankInMillis(),
+                    properties.getTimeBankIncrementInMillis()));
+        } else {
+            this.timeBankIncrement = 0;
+            this.timeBankHandle = null;
+        }
     }
 
     /**
-     * Stop the decision-making process, no matter where it currently is.
+     * Take time from the time bank, if enabled.
+     *
+     * @param nanos
+     *            Time used by the strategy. The bank will never go below zero.
      */
-    public void halt() {
-        this.session.halt();
-    }
-
-    @Override
-    public void notifyOfCollectibleAddition(final CollectibleAdditionEvent evt) {
-        this.gameEvents.insert(evt);
+    public void chargeTime(final long nanos) {
+        this.timeBank = Math.max(0, this.timeBank - nanos);
     }
 
-    @Override
-    public void notifyOfCollectibleRemoval(final CollectibleRemovalEvent evt) {
-        this.gameEvents.insert(evt);
+    /**
+     * Time remaining for the current decision, if the time bank is enabled.
+     *
+     * @return Nanoseconds.
+     */
+    public long getTimeBank() {
+        return this.timeBank;
     }
 
-    @Override
-    public void notifyOfCollectibleReward(final CollectibleRewardEvent evt) {
-        this.rewardEvents.insert(evt);
+    public boolean isTimeBankEnabled() {
+        return this.timeBankHandle != null;
     }
 
-    @Override
-    public void notifyOfDeath(final PlayerDeathEvent evt) {
-        this.playerEvents.insert(evt);
-        // remove player from the WM
-        this.handles.remove(evt.getPlayer()).forEach((node, handle) -> this.session.delete(handle));
+    /**
+     * Stop the decision-making process, no matter where it currently is.
+     */
+    public void halt() {
+        this.session.halt();
     }
 
-    @Override
-    public void notifyOfPlayerMove(final PlayerActionEvent evt) {
-        final Player player = evt.getPlayer();
-        this.playerEvents.insert(evt);
-        // update player positions
-        if (!this.handles.containsKey(player)) {
-            this.handles.put(player, new HashMap<>());
-        }
-        final Map<Node, FactHandle> handles = this.handles.get(player);
-        // worm no longer occupies certain nodes
-        handles.keySet().stream().filter(n -> !evt.getNodes().contains(n)).collect(Collectors.toSet()).forEach(n ->
-                handles.remove(n));
-        // worm occupies a new node
-        evt.getNodes().stream().filter(n -> !handles.containsKey(n)).forEach(n -> handles.put(n, this.session.insert
-                (new Worm(player, n))));
-        // update head node
-        if (player == this.player) {
-            this.currentHead = evt.getHeadNode();
+    /**
+     * Bring the working memory up to date with everything that happened in the last turn. All the changes are sent
+     * to the session in a single batch execution.
+     *
+     * @param delta
+     *            Changes that happened in the last turn.
+     */
+    public void apply(final TurnDelta delta) {
+        this.validate();
+        final KieCommands commands = KieServices.Factory.get().getCommands();
+        final List<Command<?>> batch = new ArrayList<>();
+        // the whole turn as a single fact, replacing the previous one
+        if (this.turnDelta != null) {
+            batch.add(commands.newDelete(this.turnDelta));
         }
-    }
-
-    @Override
-    public void notifyOfSurvivalReward(final SurvivalRewardEvent evt) {
-        this.rewardEvents.insert(evt);
+        batch.add(commands.newInsert(delta, DecisionMaker.TURN_DELTA_ID, false, DecisionMaker.DEFAULT_ENTRY_POINT));
+        // the individual events only go to the entry points the strategy actually declares
+        delta.getEvents().forEach(evt -> {
+            final String entryPoint = DecisionMaker.getEntryPoint(evt);
+            if (this.entryPoints.contains(entryPoint)) {
+                batch.add(commands.newInsert(evt, null, false, entryPoint));
+            }
+        });
+        // remove dead players from the WM
+        final Set<Player> dead = delta.getPlayerDeaths().stream().map(PlayerDeathEvent::getPlayer).collect
+                (Collectors.toSet());
+        dead.forEach(player -> {
+            this.positions.remove(player);
+            final Map<Node, FactHandle> handles = this.handles.remove(player);
+            if (handles != null) {
+                handles.values().forEach(handle -> batch.add(commands.newDelete(handle)));
+            }
+        });
+        // update player positions; only the head and the tail of every worm can change in a turn
+        final Map<String, Worm> insertions = new HashMap<>();
+        delta.getPlayerActions().stream().filter(evt -> !dead.contains(evt.getPlayer())).forEach(evt -> {
+            final Player player = evt.getPlayer();
+            final Map<Node, FactHandle> handles = this.handles.computeIfAbsent(player, key -> new HashMap<>());
+            final List<Node> nodes = evt.getNodes() instanceof List ? (List<Node>) evt.getNodes() :
+                    new ArrayList<>(evt.getNodes());
+            final List<Node> previous = this.positions.put(player, nodes);
+            final Node head = evt.getHeadNode();
+            if (previous == null) {
+                // worm appears for the first time
+                nodes.stream().distinct().forEach(n -> DecisionMaker.insertWorm(player, n, insertions, batch));
+            } else {
+                // how many nodes from the front of the previous position the worm still occupies
+                final int kept;
+                if (head.equals(previous.get(0))) {
+                    kept = nodes.size(); // worm stayed where it was
+                } else if (evt.getAction() == Action.REVERSE) {
+                    kept = previous.size(); // the same nodes, in reverse order
+                } else {
+                    kept = nodes.size() - 1; // worm moved forward by one node
+                }
+                // worm no longer occupies the nodes at its tail, unless it has just moved its head there
+                for (int i = kept; i < previous.size(); i++) {
+                    final Node vacated = previous.get(i);
+                    if (!vacated.equals(head)) {
+                        final FactHandle handle = handles.remove(vacated);
+                        if (handle != null) {
+                            batch.add(commands.newDelete(handle));
+                        }
+                    }
+                }
+                // worm occupies a new node with its head
+                if (!handles.containsKey(head)) {
+                    DecisionMaker.insertWorm(player, head, insertions, batch);
+                }
+            }
+            // update head node
+            if (player == this.player) {
+                this.currentHead = head;
+            }
+        });
+        final ExecutionResults results = this.session.execute(commands.newBatchExecution(batch));
+        insertions.forEach((id, worm) -> this.handles.get(worm.getPlayer()).put(worm.getNode(),
+                (FactHandle) results.getFactHandle(id)));
+        this.turnDelta = (FactHandle) results.getFactHandle(DecisionMaker.TURN_DELTA_ID);
     }
 
     @Override
@@ -248,6 +356,7 @@ class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
      */
     public void commit() {
         this.validate();
+        this.latestDecision = null; // decisions from the previous turn must not be mistaken for new ones
         DecisionMaker.LOGGER.trace("Player {} updating path tracker. ", new Object[]{this.player.getName()});
         Map<Player, Collection<Node>> positions = handles.keySet().stream().collect(Collectors.toMap(Function.identity
                 (), player -> handles.get(player).keySet()));
@@ -258,6 +367,68 @@ class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
         // increase turn number
         final CurrentTurn turn = (CurrentTurn) this.session.getObject(this.currentTurn);
         this.session.update(this.currentTurn, new CurrentTurn(turn.getNumber() + 1));
+        // top up the time bank
+        if (this.isTimeBankEnabled()) {
+            this.timeBank += this.timeBankIncrement;
+            this.session.update(this.timeBankHandle, new TimeBank(TimeUnit.NANOSECONDS.toMillis(this.timeBank),
+                    TimeUnit.NANOSECONDS.toMillis(this.timeBankIncrement)));
+        }
+    }
+
+    /**
+     * The decision that the strategy has sent most recently in this turn.
+     *
+     * @return Null if none sent yet.
+     */
+    public Action getLatestDecision() {
+        return this.latestDecision;
+    }
+
+    /**
+     * Forget how long the previous decision took, since a new one is about to be made. Called when the time-box for
+     * the new decision starts, which is before the decision itself starts.
+     */
+    void resetTime() {
+        this.cpuTime = 0;
+        this.wallTime = 0;
+    }
+
+    /**
+     * Processor time consumed by the latest decision.
+     *
+     * @return Nanoseconds consumed so far, if the decision is still being made.
+     */
+    public long getCpuTime() {
+        final Thread thread = this.decisionThread;
+        if (thread == null) {
+            return this.cpuTime;
+        } else {
+            return DecisionMaker.getCpuTime(thread) - this.decisionStartCpuTime;
+        }
+    }
+
+    /**
+     * Time on the clock taken by the latest decision.
+     *
+     * @return Nanoseconds taken so far, if the decision is still being made.
+     */
+    public long getWallTime() {
+        if (this.decisionThread == null) {
+            return this.wallTime;
+        } else {
+            return System.nanoTime() - this.decisionStartWallTime;
+        }
+    }
+
+    /**
+     * Retrieve all facts of a given type from the working memory.
+     *
+     * @param factType
+     *            Type of the facts.
+     * @return Facts currently in the working memory.
+     */
+    Collection<?> getFacts(final Class<?> factType) {
+        return this.session.getObjects(new ClassObjectFilter(factType));
     }
 
     private void validate() {
@@ -276,7 +447,24 @@ class DecisionMaker implements PlayerLogic, Channel, Callable<Action> {
     public Action call() {
         DecisionMaker.LOGGER.trace("Player {} deciding. ", new Object[]{this.player.getName()});
         this.latestDecision = null;
-        this.session.fireAllRules();
+        final Thread thread = Thread.currentThread();
+        this.decisionStartWallTime = System.nanoTime();
+        this.decisionStartCpuTime = DecisionMaker.getCpuTime(thread);
+        this.decisionThread = thread;
+        try {
+            if (this.ruleBudget > 0) {
+                // deterministic; only the number of rules fired matters, not how long it took
+                if (this.session.fireAllRules(this.ruleBudget) >= this.ruleBudget) {
+                    DecisionMaker.LOGGER.info("Player {} used up its rule budget.", this.player.getName());
+                }
+            } else {
+                this.session.fireAllRules();
+            }
+        } finally {
+            this.decisionThread = null;
+            this.cpuTime = DecisionMaker.getCpuTime(thread) - this.decisionStartCpuTime;
+            this.wallTime = System.nanoTime() - this.decisionStartWallTime;
+        }
         if (this.latestDecision == null) {
             DecisionMaker.LOGGER.info("Player {} didn't make a decision. STAY forced.", this.player.getName());
             return Action.NOTHING;
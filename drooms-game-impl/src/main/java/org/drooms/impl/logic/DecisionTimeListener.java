@@ -0,0 +1,39 @@
+package org.drooms.impl.logic;
+
+import org.drooms.api.GameProgressListener;
+import org.drooms.api.Player;
+
+/**
+ * May optionally be implemented by {@link GameProgressListener}s that want to know how long the {@link Player}s'
+ * Strategies took to decide. Called once per player per turn, after all the decisions of that turn have been made and
+ * in the order of players. The time spent warming up before the game is reported separately, before the first turn.
+ */
+public interface DecisionTimeListener {
+
+    /**
+     * Report the time a player's strategy spent on its decision in the current turn.
+     *
+     * @param p
+     *            Player in question.
+     * @param wallTimeInNanos
+     *            Time passed on the clock while the strategy was deciding.
+     * @param cpuTimeInNanos
+     *            Processor time consumed by the strategy while deciding.
+     */
+    void decisionTimed(Player p, long wallTimeInNanos, long cpuTimeInNanos);
+
+    /**
+     * Report the time a player's strategy spent warming up, before the game started. Called at most once per player.
+     *
+     * @param p
+     *            Player in question.
+     * @param turns
+     *            How many synthetic turns the strategy played.
+     * @param wallTimeInNanos
+     *            Time passed on the clock during the whole warm-up of the strategy.
+     */
+    default void warmUpTimed(final Player p, final int turns, final long wallTimeInNanos) {
+        // warm-up is of no interest by default
+    }
+
+}
@@ -0,0 +1,555 @@
+package org.drooms.impl.logic;
+
+import org.drooms.api.Node;
+import org.drooms.api.Playground;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static shortest distances between the nodes of a {@link Playground}, taking portals into account and ignoring worms.
+ * Since walls never move, the distances are computed only once per playground.
+ *
+ * <p>
+ * Small playgrounds get a table of the distances between all pairs of nodes, and every query is a single lookup.
+ * Large playgrounds get distances from a handful of landmark nodes instead (ALT); they provide lower bounds in constant
+ * time, which in turn guide an A* search for the exact distance.
+ * </p>
+ *
+ * <p>
+ * The tables can be persisted to a file and memory-mapped from it later, see
+ * {@link #load(Playground, File, byte[])}. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class DistanceOracle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistanceOracle.class);
+
+    /**
+     * Distance between nodes that are not connected, or of which one is a wall.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Playgrounds up to this many nodes get the table of all pairs; 32 MB at most.
+     */
+    static final int MAX_ALL_PAIRS_NODES = 4096;
+    static final int LANDMARKS = 8;
+
+    /**
+     * "DRDS" in ASCII.
+     */
+    private static final int MAGIC = 0x44524453;
+    private static final int VERSION = 1;
+    private static final char UNREACHABLE_CHAR = Character.MAX_VALUE;
+    private static final int UNREACHABLE_INT = -1;
+
+    /**
+     * Distances to the nodes that a single A* search has reached so far; open addressing, so that nothing is boxed and
+     * the memory taken depends on the nodes reached rather than on the size of the playground.
+     */
+    private static final class Reached {
+
+        /**
+         * Node ID plus one; zero marks a free slot.
+         */
+        private int[] keys = new int[256];
+        private int[] values = new int[256];
+        private int size = 0;
+
+        private int slot(final int id) {
+            final int mask = this.keys.length - 1;
+            final int hash = id * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (this.keys[slot] != 0 && this.keys[slot] != id + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        public int get(final int id) {
+            final int slot = this.slot(id);
+            return this.keys[slot] == 0 ? DistanceOracle.UNREACHABLE : this.values[slot];
+        }
+
+        public void put(final int id, final int distance) {
+            int slot = this.slot(id);
+            if (this.keys[slot] == 0) {
+                if (2 * (this.size + 1) > this.keys.length) {
+                    this.grow();
+                    slot = this.slot(id);
+                }
+                this.keys[slot] = id + 1;
+                this.size++;
+            }
+            this.values[slot] = distance;
+        }
+
+        private void grow() {
+            final int[] oldKeys = this.keys;
+            final int[] oldValues = this.values;
+            this.keys = new int[oldKeys.length * 2];
+            this.values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    final int slot = this.slot(oldKeys[i] - 1);
+                    this.keys[slot] = oldKeys[i];
+                    this.values[slot] = oldValues[i];
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Binary min-heap of the nodes that an A* search is yet to expand, ordered by {@link #getKey(int, int)}.
+     */
+    private static final class Open {
+
+        private long[] keys = new long[64];
+        private int[] ids = new int[64];
+        private int size = 0;
+
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        public long peekKey() {
+            return this.keys[0];
+        }
+
+        public int peekId() {
+            return this.ids[0];
+        }
+
+        public void add(final long key, final int id) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            int i = this.size++;
+            while (i > 0) {
+                final int parent = (i - 1) / 2;
+                if (this.keys[parent] <= key) {
+                    break;
+                }
+                this.keys[i] = this.keys[parent];
+                this.ids[i] = this.ids[parent];
+                i = parent;
+            }
+            this.keys[i] = key;
+            this.ids[i] = id;
+        }
+
+        public void remove() {
+            final long key = this.keys[--this.size];
+            final int id = this.ids[this.size];
+            int i = 0;
+            while (2 * i + 1 < this.size) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                    child++;
+                }
+                if (key <= this.keys[child]) {
+                    break;
+                }
+                this.keys[i] = this.keys[child];
+                this.ids[i] = this.ids[child];
+                i = child;
+            }
+            this.keys[i] = key;
+            this.ids[i] = id;
+        }
+
+    }
+
+    /**
+     * Order of the nodes in an A* search: estimated total distance in the upper half, so that the lowest goes first;
+     * distance so far in the lower half, inverted, so that ties go to the nodes further along.
+     */
+    private static long getKey(final int estimate, final int distance) {
+        return ((long) estimate << 32) | (Integer.MAX_VALUE - distance);
+    }
+
+    private static int getDistance(final long key) {
+        return Integer.MAX_VALUE - (int) key;
+    }
+
+    /**
+     * Compute the distances in memory.
+     *
+     * @param playground
+     *            Playground in question.
+     * @return The distances.
+     */
+    public static DistanceOracle compute(final Playground playground) {
+        return DistanceOracle.compute(playground, DistanceOracle.MAX_ALL_PAIRS_NODES);
+    }
+
+    static DistanceOracle compute(final Playground playground, final int maxAllPairsNodes) {
+        final long start = System.nanoTime();
+        final int nodeCount = playground.getNodeCount();
+        final DistanceOracle result;
+        if (nodeCount <= maxAllPairsNodes) {
+            result = new DistanceOracle(playground, new int[0], DistanceOracle.computeAllPairs(playground));
+        } else {
+            final int[] landmarks = DistanceOracle.pickLandmarks(playground);
+            result = new DistanceOracle(playground, landmarks, DistanceOracle.computeLandmarks(playground,
+                    landmarks));
+        }
+        DistanceOracle.LOGGER.info("Distances for playground {} computed in {} ms.", playground.getName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Memory-map the distances from a file, computing them and writing the file first if it doesn't match the
+     * playground. When the file cannot be written, the computed distances are kept in memory.
+     *
+     * @param playground
+     *            Playground in question.
+     * @param file
+     *            Where the distances are persisted.
+     * @param playgroundHash
+     *            Hash of the playground's source. Distances for a different hash are never used.
+     * @return The distances.
+     */
+    public static DistanceOracle load(final Playground playground, final File file, final byte[] playgroundHash) {
+        final DistanceOracle existing = DistanceOracle.map(playground, file, playgroundHash);
+        if (existing != null) {
+            DistanceOracle.LOGGER.debug("Distances for playground {} loaded from {}.", playground.getName(), file);
+            return existing;
+        }
+        final DistanceOracle computed = DistanceOracle.compute(playground);
+        try {
+            computed.write(file.toPath(), playgroundHash);
+        } catch (final IOException ex) {
+            DistanceOracle.LOGGER.warn("Failed persisting distances for playground {}.", playground.getName(), ex);
+            return computed;
+        }
+        final DistanceOracle mapped = DistanceOracle.map(playground, file, playgroundHash);
+        return mapped == null ? computed : mapped;
+    }
+
+    private static DistanceOracle map(final Playground playground, final File file, final byte[] playgroundHash) {
+        if (!file.canRead()) {
+            return null;
+        }
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            final ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final int headerSize = 4 * 4 + playgroundHash.length;
+            if (data.remaining() < headerSize || data.getInt() != DistanceOracle.MAGIC || data.getInt() !=
+                    DistanceOracle.VERSION) {
+                return null;
+            }
+            final byte[] hash = new byte[playgroundHash.length];
+            data.get(hash);
+            final int nodeCount = data.getInt();
+            final int landmarkCount = data.getInt();
+            if (!Arrays.equals(hash, playgroundHash) || nodeCount != playground.getNodeCount() || landmarkCount < 0
+                    || data.remaining() < landmarkCount * 4) {
+                return null;
+            }
+            final int[] landmarks = new int[landmarkCount];
+            for (int i = 0; i < landmarkCount; i++) {
+                landmarks[i] = data.getInt();
+            }
+            final long tableSize = landmarkCount == 0 ? 2L * nodeCount * nodeCount : 4L * landmarkCount * nodeCount;
+            if (data.remaining() != tableSize) {
+                return null;
+            }
+            return new DistanceOracle(playground, landmarks, data.slice());
+        } catch (final IOException | RuntimeException ex) {
+            DistanceOracle.LOGGER.warn("Ignoring unreadable distances {}.", file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Breadth-first search from a node.
+     *
+     * @param playground
+     *            Playground to search.
+     * @param source
+     *            ID of the node to search from.
+     * @param distances
+     *            Will be filled with the distances from the source, or {@link #UNREACHABLE}.
+     * @param queue
+     *            Work area, at least as large as there are nodes.
+     * @return The node furthest from the source.
+     */
+    private static int search(final Playground playground, final int source, final int[] distances,
+            final int[] queue) {
+        Arrays.fill(distances, DistanceOracle.UNREACHABLE);
+        if (playground.getNodeById(source).getType() == Node.Type.WALL) {
+            return source;
+        }
+        distances[source] = 0;
+        queue[0] = source;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            final int id = queue[head++];
+            final int distance = distances[id] + 1;
+            for (int i = 0; i < playground.getNeighbourCount(id); i++) {
+                final int other = playground.getNeighbourId(id, i);
+                if (distances[other] == DistanceOracle.UNREACHABLE) {
+                    distances[other] = distance;
+                    queue[tail++] = other;
+                }
+            }
+        }
+        return queue[tail - 1];
+    }
+
+    private static ByteBuffer computeAllPairs(final Playground playground) {
+        final int nodeCount = playground.getNodeCount();
+        final ByteBuffer result = ByteBuffer.allocate(2 * nodeCount * nodeCount);
+        final CharBuffer table = result.asCharBuffer();
+        final int[] distances = new int[nodeCount];
+        final int[] queue = new int[nodeCount];
+        for (int from = 0; from < nodeCount; from++) {
+            DistanceOracle.search(playground, from, distances, queue);
+            for (int to = 0; to < nodeCount; to++) {
+                final int distance = distances[to];
+                table.put(from * nodeCount + to, distance == DistanceOracle.UNREACHABLE ?
+                        DistanceOracle.UNREACHABLE_CHAR : (char) distance);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Landmarks are chosen so that they are far apart; every one is the node furthest away from all the previous ones.
+     * The first one is the node furthest from the first starting position.
+     */
+    private static int[] pickLandmarks(final Playground playground) {
+        final int nodeCount = playground.getNodeCount();
+        final int[] distances = new int[nodeCount];
+        final int[] queue = new int[nodeCount];
+        final int[] nearest = new int[nodeCount];
+        Arrays.fill(nearest, DistanceOracle.UNREACHABLE);
+        final int[] landmarks = new int[DistanceOracle.LANDMARKS];
+        int candidate = 0;
+        if (!playground.getStartingPositions().isEmpty()) {
+            candidate = playground.getStartingPositions().get(0).getId();
+        } else {
+            while (candidate < nodeCount - 1 && playground.getNodeById(candidate).getType() == Node.Type.WALL) {
+                candidate++;
+            }
+        }
+        candidate = DistanceOracle.search(playground, candidate, distances, queue);
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarks[i] = candidate;
+            DistanceOracle.search(playground, candidate, distances, queue);
+            int furthest = -1;
+            for (int id = 0; id < nodeCount; id++) {
+                nearest[id] = Math.min(nearest[id], distances[id]);
+                if (nearest[id] != DistanceOracle.UNREACHABLE && (furthest < 0 || nearest[id] > nearest[furthest])) {
+                    furthest = id;
+                }
+            }
+            candidate = furthest < 0 ? candidate : furthest;
+        }
+        return landmarks;
+    }
+
+    private static ByteBuffer computeLandmarks(final Playground playground, final int[] landmarks) {
+        final int nodeCount = playground.getNodeCount();
+        final ByteBuffer result = ByteBuffer.allocate(4 * landmarks.length * nodeCount);
+        final IntBuffer table = result.asIntBuffer();
+        final int[] distances = new int[nodeCount];
+        final int[] queue = new int[nodeCount];
+        for (int i = 0; i < landmarks.length; i++) {
+            DistanceOracle.search(playground, landmarks[i], distances, queue);
+            for (int id = 0; id < nodeCount; id++) {
+                final int distance = distances[id];
+                table.put(i * nodeCount + id, distance == DistanceOracle.UNREACHABLE ? DistanceOracle.UNREACHABLE_INT
+                        : distance);
+            }
+        }
+        return result;
+    }
+
+    private final Playground playground;
+    private final int nodeCount;
+    private final int[] landmarks;
+    private final ByteBuffer data;
+    private final CharBuffer allPairs;
+    private final IntBuffer fromLandmarks;
+
+    private DistanceOracle(final Playground playground, final int[] landmarks, final ByteBuffer data) {
+        this.playground = playground;
+        this.nodeCount = playground.getNodeCount();
+        this.landmarks = landmarks;
+        this.data = data.order(ByteOrder.BIG_ENDIAN);
+        if (landmarks.length == 0) {
+            this.allPairs = this.data.asCharBuffer();
+            this.fromLandmarks = null;
+        } else {
+            this.allPairs = null;
+            this.fromLandmarks = this.data.asIntBuffer();
+        }
+    }
+
+    private void write(final Path target, final byte[] playgroundHash) throws IOException {
+        final Path folder = target.toAbsolutePath().getParent();
+        // never let a reader see a half-written file
+        final Path temp = Files.createTempFile(folder, target.getFileName().toString(), ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer header = ByteBuffer.allocate(4 * 4 + playgroundHash.length + 4 * this.landmarks
+                        .length);
+                header.putInt(DistanceOracle.MAGIC).putInt(DistanceOracle.VERSION).put(playgroundHash);
+                header.putInt(this.nodeCount).putInt(this.landmarks.length);
+                for (final int landmark : this.landmarks) {
+                    header.putInt(landmark);
+                }
+                header.flip();
+                final ByteBuffer table = this.data.duplicate();
+                table.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (table.hasRemaining()) {
+                    channel.write(table);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean isValid(final int id) {
+        return id >= 0 && id < this.nodeCount;
+    }
+
+    /**
+     * Whether or not {@link #getLowerBound(int, int)} is always the exact distance.
+     *
+     * @return True for playgrounds small enough to have the distances between all pairs of nodes.
+     */
+    public boolean isExact() {
+        return this.allPairs != null;
+    }
+
+    /**
+     * Lower bound of the distance between two nodes, in constant time.
+     *
+     * @param from
+     *            {@link Node#getId()} of one node.
+     * @param to
+     *            {@link Node#getId()} of the other node.
+     * @return The exact distance if {@link #isExact()}, otherwise a number that the distance is never lower than.
+     *         {@link #UNREACHABLE} when there is definitely no path.
+     */
+    public int getLowerBound(final int from, final int to) {
+        if (!this.isValid(from) || !this.isValid(to)) {
+            return DistanceOracle.UNREACHABLE;
+        } else if (this.allPairs != null) {
+            final char distance = this.allPairs.get(from * this.nodeCount + to);
+            return distance == DistanceOracle.UNREACHABLE_CHAR ? DistanceOracle.UNREACHABLE : distance;
+        }
+        int result = 0;
+        for (int i = 0; i < this.landmarks.length; i++) {
+            final int distance1 = this.fromLandmarks.get(i * this.nodeCount + from);
+            final int distance2 = this.fromLandmarks.get(i * this.nodeCount + to);
+            if (distance1 == DistanceOracle.UNREACHABLE_INT && distance2 == DistanceOracle.UNREACHABLE_INT) {
+                continue; // landmark tells us nothing
+            } else if (distance1 == DistanceOracle.UNREACHABLE_INT || distance2 == DistanceOracle.UNREACHABLE_INT) {
+                return DistanceOracle.UNREACHABLE; // one is connected to the landmark, the other is not
+            }
+            // triangle inequality
+            result = Math.max(result, Math.abs(distance1 - distance2));
+        }
+        return result;
+    }
+
+    /**
+     * Lower bound of the distance between two nodes, in constant time.
+     *
+     * @param from
+     *            One node.
+     * @param to
+     *            The other node.
+     * @return See {@link #getLowerBound(int, int)}.
+     */
+    public int getLowerBound(final Node from, final Node to) {
+        return this.getLowerBound(from.getId(), to.getId());
+    }
+
+    /**
+     * Length of the shortest path between two nodes. Constant time if {@link #isExact()}, otherwise an A* search
+     * guided by the landmarks.
+     *
+     * @param from
+     *            {@link Node#getId()} of one node.
+     * @param to
+     *            {@link Node#getId()} of the other node.
+     * @return Number of moves between the nodes, or {@link #UNREACHABLE}.
+     */
+    public int getDistance(final int from, final int to) {
+        final int bound = this.getLowerBound(from, to);
+        if (this.isExact() || bound == DistanceOracle.UNREACHABLE) {
+            return bound;
+        } else if (from == to) {
+            return this.playground.getNodeById(from).getType() == Node.Type.WALL ? DistanceOracle.UNREACHABLE : 0;
+        }
+        final Reached reached = new Reached();
+        final Open open = new Open();
+        reached.put(from, 0);
+        open.add(DistanceOracle.getKey(bound, 0), from);
+        while (!open.isEmpty()) {
+            final int id = open.peekId();
+            final int distance = DistanceOracle.getDistance(open.peekKey());
+            open.remove();
+            if (distance > reached.get(id)) {
+                continue; // stale entry, a shorter path has been found since
+            } else if (id == to) {
+                return distance;
+            }
+            for (int i = 0; i < this.playground.getNeighbourCount(id); i++) {
+                final int other = this.playground.getNeighbourId(id, i);
+                final int remaining = this.getLowerBound(other, to);
+                if (remaining != DistanceOracle.UNREACHABLE && reached.get(other) > distance + 1) {
+                    reached.put(other, distance + 1);
+                    open.add(DistanceOracle.getKey(distance + 1 + remaining, distance + 1), other);
+                }
+            }
+        }
+        return DistanceOracle.UNREACHABLE;
+    }
+
+    /**
+     * Length of the shortest path between two nodes.
+     *
+     * @param from
+     *            One node.
+     * @param to
+     *            The other node.
+     * @return See {@link #getDistance(int, int)}.
+     */
+    public int getDistance(final Node from, final Node to) {
+        return this.getDistance(from.getId(), to.getId());
+    }
+
+}
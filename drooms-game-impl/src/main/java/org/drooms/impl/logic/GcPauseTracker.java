@@ -0,0 +1,181 @@
+package org.drooms.impl.logic;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens to garbage collector notifications and remembers the pauses, so that {@link TimeBox}es can tell how much of
+ * their time was taken by the JVM instead of the strategy. Pauses are placed on the {@link System#nanoTime()} scale,
+ * using the start and end times that the collector reports, not the moment the notification was received.
+ *
+ * <p>
+ * Only collections that stop the application are pauses. They are told apart by the action the collector reports, not
+ * by its name: stop-the-world collections end a minor or a major GC, or explicitly a pause; concurrent collectors also
+ * report whole cycles, which run alongside the application.
+ * </p>
+ *
+ * <p>
+ * Listening to the collectors is not free, so there is a single process-wide tracker, shared by all the games.
+ * </p>
+ */
+class GcPauseTracker implements NotificationListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GcPauseTracker.class);
+    /**
+     * How long to remember the pauses for. Much longer than any time-box should take.
+     */
+    private static final long MEMORY = TimeUnit.MINUTES.toNanos(10);
+
+    private static final GcPauseTracker INSTANCE = new GcPauseTracker();
+
+    /**
+     * Return the single process-wide instance of this class. It is never stopped.
+     *
+     * @return The instance.
+     */
+    public static GcPauseTracker getInstance() {
+        return GcPauseTracker.INSTANCE;
+    }
+
+    /**
+     * Decide whether a garbage collection stopped the application.
+     *
+     * @param gcAction
+     *            What the collector did, see {@link GarbageCollectionNotificationInfo#getGcAction()}.
+     * @return True if the collection was a pause.
+     */
+    static boolean isPause(final String gcAction) {
+        final String action = gcAction.toLowerCase(Locale.ROOT);
+        if (action.contains("pause")) {
+            return true;
+        } else if (action.contains("cycle")) {
+            // runs alongside the application, doesn't stop it
+            return false;
+        } else {
+            return action.contains("minor") || action.contains("major");
+        }
+    }
+
+    private static final class Pause {
+
+        private final long start;
+        private final long end;
+
+        public Pause(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+    private final Deque<Pause> pauses = new ConcurrentLinkedDeque<>();
+    private final List<NotificationEmitter> emitters = new LinkedList<>();
+    /**
+     * When the JVM started, on the {@link System#nanoTime()} scale. Collectors report their times relative to that.
+     */
+    private final long jvmStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ManagementFactory
+            .getRuntimeMXBean().getUptime());
+
+    /**
+     * Start listening to all the garbage collectors that support notifications. Outside of tests, use
+     * {@link #getInstance()} instead.
+     */
+    GcPauseTracker() {
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                final NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(this, null, null);
+                this.emitters.add(emitter);
+            }
+        }
+        if (this.emitters.isEmpty()) {
+            GcPauseTracker.LOGGER.warn("No garbage collector notifications available, GC pauses will not be " +
+                    "compensated for.");
+        }
+    }
+
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)
+                notification.getUserData());
+        if (!GcPauseTracker.isPause(info.getGcAction())) {
+            return;
+        }
+        final GcInfo gcInfo = info.getGcInfo();
+        if (gcInfo.getEndTime() > gcInfo.getStartTime()) {
+            this.recordPause(this.jvmStart + TimeUnit.MILLISECONDS.toNanos(gcInfo.getStartTime()),
+                    this.jvmStart + TimeUnit.MILLISECONDS.toNanos(gcInfo.getEndTime()));
+        }
+    }
+
+    /**
+     * Remember a pause.
+     *
+     * @param start
+     *            Start of the pause, on the {@link System#nanoTime()} scale.
+     * @param end
+     *            End of the pause, on the {@link System#nanoTime()} scale.
+     */
+    void recordPause(final long start, final long end) {
+        this.pauses.addLast(new Pause(start, end));
+        // forget the pauses that no time-box could possibly care about
+        while (!this.pauses.isEmpty() && end - this.pauses.peekFirst().end > GcPauseTracker.MEMORY) {
+            this.pauses.pollFirst();
+        }
+    }
+
+    /**
+     * How much time the JVM spent in garbage collection pauses in a given period.
+     *
+     * @param from
+     *            Start of the period, on the {@link System#nanoTime()} scale.
+     * @param to
+     *            End of the period, on the {@link System#nanoTime()} scale.
+     * @return Nanoseconds of the period that were covered by pauses.
+     */
+    public long getPausedNanos(final long from, final long to) {
+        long total = 0;
+        for (final Pause pause : this.pauses) {
+            final long overlap = Math.min(to, pause.end) - Math.max(from, pause.start);
+            if (overlap > 0) {
+                total += overlap;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Stop listening to the garbage collectors.
+     */
+    public void stop() {
+        this.emitters.forEach(emitter -> {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (final ListenerNotFoundException ex) {
+                // nothing to remove
+            }
+        });
+        this.emitters.clear();
+        this.pauses.clear();
+    }
+
+}
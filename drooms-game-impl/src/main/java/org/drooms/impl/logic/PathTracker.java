@@ -11,6 +11,7 @@ import org.drooms.api.Edge;
 import org.drooms.api.Node;
 import org.drooms.api.Player;
 import org.drooms.api.Playground;
+import org.drooms.impl.PlaygroundCache;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -111,6 +112,7 @@ public class PathTracker {
 
     private Graph<Node, Edge> currentGraph;
     private ShortestPath<Node, Edge> currentPath;
+    private final DistanceOracle distances;
 
     private final Player player;
     private final Playground playground;
@@ -124,6 +126,8 @@ public class PathTracker {
     public PathTracker(final Playground playground, final Player p) {
         this.playground = playground;
         this.player = p;
+        // never computed within a strategy's time, and only looked up once per player
+        this.distances = PlaygroundCache.getInstance().getDistances(playground);
     }
 
     public List<Edge> getPath(final Node start, final Set<Node> otherNodeSet) {
@@ -144,6 +148,39 @@ public class PathTracker {
         return this.getPath(start, Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(otherNodes))));
     }
 
+    /**
+     * Length of the shortest path between two nodes, ignoring worms. Unlike {@link #getPath(Node, Node...)}, this only
+     * depends on the walls and the portals, and is therefore much cheaper to compute; on all but the largest
+     * playgrounds, it is a single lookup.
+     *
+     * @param start Beginning of the path.
+     * @param end   End of the path.
+     * @return Number of moves between the nodes, or {@link DistanceOracle#UNREACHABLE}.
+     */
+    public int getDistance(final Node start, final Node end) {
+        return this.getDistances().getDistance(start, end);
+    }
+
+    /**
+     * Lower bound of the length of the shortest path between two nodes, ignoring worms. Always a single lookup.
+     *
+     * @param start Beginning of the path.
+     * @param end   End of the path.
+     * @return The length will never be lower than this, see {@link DistanceOracle#getLowerBound(Node, Node)}.
+     */
+    public int getDistanceLowerBound(final Node start, final Node end) {
+        return this.getDistances().getLowerBound(start, end);
+    }
+
+    /**
+     * Static distances between the nodes of the playground, shared by all the players.
+     *
+     * @return The distances.
+     */
+    public DistanceOracle getDistances() {
+        return this.distances;
+    }
+
     public Player getPlayer() {
         return this.player;
     }
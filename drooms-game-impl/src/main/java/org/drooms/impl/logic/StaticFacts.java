@@ -0,0 +1,164 @@
+package org.drooms.impl.logic;
+
+import org.drooms.api.Node;
+import org.drooms.api.Node.Type;
+import org.drooms.api.Playground;
+import org.drooms.impl.logic.facts.GameProperty;
+import org.drooms.impl.logic.facts.Wall;
+import org.drooms.impl.logic.facts.WallIndex;
+import org.drooms.impl.util.GameProperties;
+import org.kie.api.runtime.KieSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Facts that are the same for every player on a particular playground with particular game properties: the walls and
+ * the game configuration. They are immutable, so they are only ever built once and every new session then gets the
+ * very same instances inserted.
+ */
+class StaticFacts {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaticFacts.class);
+
+    private static final int MAX_ENTRIES = 16;
+
+    private static final Map<Key, Future<StaticFacts>> FACTS = new LinkedHashMap<Key, Future<StaticFacts>>(16,
+            0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Future<StaticFacts>> eldest) {
+            return this.size() > StaticFacts.MAX_ENTRIES;
+        }
+
+    };
+
+    /**
+     * Identifies the facts. Playgrounds are compared by identity, game properties by the values that end up in the
+     * working memory.
+     */
+    private static class Key {
+
+        private final Playground playground;
+        private final long[] properties;
+        private final boolean wallFactsEnabled;
+
+        public Key(final Playground playground, final GameProperties properties) {
+            this.playground = playground;
+            this.properties = new long[]{properties.getMaximumTurns(), properties.getMaximumInactiveTurns(),
+                    properties.getDeadWormBonus(), properties.getStrategyTimeoutInSeconds(),
+                    properties.getStrategyTimeoutInMillis()};
+            this.wallFactsEnabled = properties.isWallFactsEnabled();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            } else if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.playground == other.playground && this.wallFactsEnabled == other.wallFactsEnabled &&
+                    Arrays.equals(this.properties, other.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(this.playground);
+            result = 31 * result + Arrays.hashCode(this.properties);
+            result = 31 * result + (this.wallFactsEnabled ? 1 : 0);
+            return result;
+        }
+
+    }
+
+    /**
+     * Retrieve the facts for a given combination, building them if necessary. Facts for different combinations may be
+     * built concurrently.
+     *
+     * @param playground
+     *            The playground on which the game is happening.
+     * @param properties
+     *            Configuration of the game.
+     * @return The facts.
+     */
+    public static StaticFacts get(final Playground playground, final GameProperties properties) {
+        final Key key = new Key(playground, properties);
+        FutureTask<StaticFacts> build = null;
+        Future<StaticFacts> facts;
+        synchronized (StaticFacts.FACTS) {
+            facts = StaticFacts.FACTS.get(key);
+            if (facts == null) {
+                build = new FutureTask<>(() -> new StaticFacts(playground, properties));
+                StaticFacts.FACTS.put(key, build);
+                facts = build;
+            }
+        }
+        if (build != null) {
+            build.run();
+        }
+        try {
+            return facts.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for static facts.", ex);
+        } catch (final ExecutionException ex) {
+            synchronized (StaticFacts.FACTS) {
+                StaticFacts.FACTS.remove(key, facts);
+            }
+            throw new IllegalStateException("Failed building static facts.", ex.getCause());
+        }
+    }
+
+    private final List<Object> facts;
+
+    private StaticFacts(final Playground playground, final GameProperties properties) {
+        final long start = System.nanoTime();
+        final List<Object> facts = new ArrayList<>();
+        // playground walls; one fact per wall only if asked for, as there may be very many
+        facts.add(new WallIndex(playground));
+        if (properties.isWallFactsEnabled()) {
+            for (int x = -1; x <= playground.getWidth(); x++) {
+                for (int y = -1; y <= playground.getHeight(); y++) {
+                    final Node n = playground.getNodeAt(x, y);
+                    if (n.getType() == Type.WALL) {
+                        facts.add(new Wall(n));
+                    }
+                }
+            }
+        }
+        // info about the game configuration
+        facts.add(new GameProperty(GameProperty.Name.MAX_TURNS, properties.getMaximumTurns()));
+        facts.add(new GameProperty(GameProperty.Name.MAX_INACTIVE_TURNS, properties.getMaximumInactiveTurns()));
+        facts.add(new GameProperty(GameProperty.Name.DEAD_WORM_BONUS, properties.getDeadWormBonus()));
+        facts.add(new GameProperty(GameProperty.Name.TIMEOUT_IN_SECONDS, properties.getStrategyTimeoutInSeconds()));
+        facts.add(new GameProperty(GameProperty.Name.TIMEOUT_IN_MILLIS,
+                (int) Math.min(Integer.MAX_VALUE, properties.getStrategyTimeoutInMillis())));
+        this.facts = Collections.unmodifiableList(facts);
+        StaticFacts.LOGGER.info("Static facts for playground {} built in {} ms.", playground.getName(),
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Insert all the facts into a session.
+     *
+     * @param session
+     *            The session, typically a new one.
+     */
+    public void insertInto(final KieSession session) {
+        this.facts.forEach(session::insert);
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.drooms.impl.logic;
+
+import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameProperties.TimeoutMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time that a single player's strategy has for a single decision. Starts when created. Depending on
+ * {@link TimeoutMode}, either the clock or the processor time consumed by the strategy is measured. Garbage collection
+ * pauses that happen while the time-box is open are not the strategy's fault, and so the clock limit is extended by
+ * their length.
+ */
+class TimeBox {
+
+    private static final long MINIMUM_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DecisionMaker decisionMaker;
+    private final TimeoutMode mode;
+    private final long budget;
+    private final long start = System.nanoTime();
+    private final long wallClockLimit;
+    private final GcPauseTracker gcPauses;
+    private volatile long end = -1;
+
+    /**
+     * Start the time-box.
+     *
+     * @param decisionMaker
+     *            Strategy that will be making the decision.
+     * @param mode
+     *            How to measure time.
+     * @param budgetInNanos
+     *            How much time the strategy has.
+     */
+    public TimeBox(final DecisionMaker decisionMaker, final TimeoutMode mode, final long budgetInNanos) {
+        this(decisionMaker, mode, budgetInNanos, null);
+    }
+
+    /**
+     * Start the time-box, compensating for garbage collection pauses.
+     *
+     * @param decisionMaker
+     *            Strategy that will be making the decision.
+     * @param mode
+     *            How to measure time.
+     * @param budgetInNanos
+     *            How much time the strategy has.
+     * @param gcPauses
+     *            Where to look for the pauses. Null if they should not be compensated for.
+     */
+    public TimeBox(final DecisionMaker decisionMaker, final TimeoutMode mode, final long budgetInNanos,
+            final GcPauseTracker gcPauses) {
+        this.gcPauses = gcPauses;
+        this.decisionMaker = decisionMaker;
+        this.mode = mode;
+        this.budget = budgetInNanos;
+        switch (mode) {
+            case CPU:
+                this.wallClockLimit = budgetInNanos * GameProperties.CPU_TIMEOUT_WALL_CLOCK_FACTOR;
+                break;
+            case RULES:
+                this.wallClockLimit = budgetInNanos * GameProperties.RULES_TIMEOUT_WALL_CLOCK_FACTOR;
+                break;
+            default:
+                this.wallClockLimit = budgetInNanos;
+        }
+        if (decisionMaker != null) {
+            // until the decision starts, the time of the previous one must not count against this time-box
+            decisionMaker.resetTime();
+        }
+    }
+
+    /**
+     * How long to wait before checking {@link #isExpired()} again.
+     *
+     * @return Nanoseconds. Zero or less if already expired on the clock.
+     */
+    public long getCheckInterval() {
+        final long remaining = this.getWallClockLimit() - (System.nanoTime() - this.start);
+        if (this.mode == TimeoutMode.CPU) {
+            // processor time can not be waited for, only checked every now and then
+            return Math.min(remaining, Math.max(TimeBox.MINIMUM_POLL_INTERVAL, this.budget / 20));
+        } else {
+            return remaining;
+        }
+    }
+
+    public boolean isExpired() {
+        if (System.nanoTime() - this.start >= this.getWallClockLimit()) {
+            return true;
+        } else {
+            return this.mode == TimeoutMode.CPU && this.decisionMaker.getCpuTime() >= this.budget;
+        }
+    }
+
+    /**
+     * Whether the time-box has expired on the clock, which only serves as a safety net for strategies that do not
+     * consume their actual budget. In {@link TimeoutMode#WALL}, the clock is the budget, so this is never true.
+     *
+     * @return True if the strategy was stopped by the safety net rather than by its budget.
+     */
+    public boolean isExpiredBySafetyNet() {
+        if (this.mode == TimeoutMode.WALL) {
+            return false;
+        } else if (this.mode == TimeoutMode.CPU && this.decisionMaker.getCpuTime() >= this.budget) {
+            return false;
+        } else {
+            return System.nanoTime() - this.start >= this.getWallClockLimit();
+        }
+    }
+
+    /**
+     * Stop counting the garbage collection pauses against the time-box. To be called when the decision has been
+     * made or the strategy halted.
+     */
+    public void close() {
+        if (this.end < 0) {
+            this.end = System.nanoTime();
+        }
+    }
+
+    /**
+     * How much time the garbage collector took from the strategy while the time-box was open.
+     *
+     * @return Nanoseconds by which the time-box was extended.
+     */
+    public long getGcPauseInNanos() {
+        if (this.gcPauses == null) {
+            return 0;
+        }
+        final long end = this.end < 0 ? System.nanoTime() : this.end;
+        return this.gcPauses.getPausedNanos(this.start, end);
+    }
+
+    private long getWallClockLimit() {
+        return this.wallClockLimit + this.getGcPauseInNanos();
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.drooms.impl.logic.facts;
+
+/**
+ * Represents type of fact to be inserted into the working memory, so that the
+ * strategy knows how much time it has left for its decisions. Only present when
+ * the time bank is enabled.
+ */
+public class TimeBank {
+
+    private final long remainingInMillis;
+    private final long incrementInMillis;
+
+    public TimeBank(final long remainingInMillis, final long incrementInMillis) {
+        this.remainingInMillis = remainingInMillis;
+        this.incrementInMillis = incrementInMillis;
+    }
+
+    /**
+     * How much time will be added to the bank with every turn.
+     *
+     * @return Milliseconds.
+     */
+    public long getIncrementInMillis() {
+        return this.incrementInMillis;
+    }
+
+    /**
+     * How much time the strategy has for the current decision. Whatever it doesn't use will be available in the
+     * next turn.
+     *
+     * @return Milliseconds.
+     */
+    public long getRemainingInMillis() {
+        return this.remainingInMillis;
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.drooms.impl.logic.facts;
+
+import org.drooms.impl.logic.PlayerLogic;
+import org.drooms.impl.logic.events.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents type of fact to be inserted into the working memory, so that the
+ * strategy has information about everything that changed in the last turn. There
+ * is only ever one such fact in the working memory, replaced every turn.
+ */
+public class TurnDelta {
+
+    /**
+     * Collects events as they are distributed to players and turns them into a
+     * {@link TurnDelta}.
+     */
+    public static class Builder implements PlayerLogic {
+
+        private final List<Object> events = new ArrayList<>();
+        private final List<PlayerActionEvent> playerActions = new ArrayList<>();
+        private final List<PlayerDeathEvent> playerDeaths = new ArrayList<>();
+        private final List<CollectibleAdditionEvent> collectibleAdditions = new ArrayList<>();
+        private final List<CollectibleRemovalEvent> collectibleRemovals = new ArrayList<>();
+        private final List<CollectibleRewardEvent> collectibleRewards = new ArrayList<>();
+        private final List<SurvivalRewardEvent> survivalRewards = new ArrayList<>();
+
+        public TurnDelta build() {
+            return new TurnDelta(this);
+        }
+
+        @Override
+        public void notifyOfCollectibleAddition(final CollectibleAdditionEvent evt) {
+            this.events.add(evt);
+            this.collectibleAdditions.add(evt);
+        }
+
+        @Override
+        public void notifyOfCollectibleRemoval(final CollectibleRemovalEvent evt) {
+            this.events.add(evt);
+            this.collectibleRemovals.add(evt);
+        }
+
+        @Override
+        public void notifyOfCollectibleReward(final CollectibleRewardEvent evt) {
+            this.events.add(evt);
+            this.collectibleRewards.add(evt);
+        }
+
+        @Override
+        public void notifyOfDeath(final PlayerDeathEvent evt) {
+            this.events.add(evt);
+            this.playerDeaths.add(evt);
+        }
+
+        @Override
+        public void notifyOfPlayerMove(final PlayerActionEvent evt) {
+            this.events.add(evt);
+            this.playerActions.add(evt);
+        }
+
+        @Override
+        public void notifyOfSurvivalReward(final SurvivalRewardEvent evt) {
+            this.events.add(evt);
+            this.survivalRewards.add(evt);
+        }
+
+    }
+
+    private static <T> List<T> freeze(final List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private final List<Object> events;
+    private final List<PlayerActionEvent> playerActions;
+    private final List<PlayerDeathEvent> playerDeaths;
+    private final List<CollectibleAdditionEvent> collectibleAdditions;
+    private final List<CollectibleRemovalEvent> collectibleRemovals;
+    private final List<CollectibleRewardEvent> collectibleRewards;
+    private final List<SurvivalRewardEvent> survivalRewards;
+
+    private TurnDelta(final Builder builder) {
+        this.events = TurnDelta.freeze(builder.events);
+        this.playerActions = TurnDelta.freeze(builder.playerActions);
+        this.playerDeaths = TurnDelta.freeze(builder.playerDeaths);
+        this.collectibleAdditions = TurnDelta.freeze(builder.collectibleAdditions);
+        this.collectibleRemovals = TurnDelta.freeze(builder.collectibleRemovals);
+        this.collectibleRewards = TurnDelta.freeze(builder.collectibleRewards);
+        this.survivalRewards = TurnDelta.freeze(builder.survivalRewards);
+    }
+
+    public List<CollectibleAdditionEvent> getCollectibleAdditions() {
+        return this.collectibleAdditions;
+    }
+
+    public List<CollectibleRemovalEvent> getCollectibleRemovals() {
+        return this.collectibleRemovals;
+    }
+
+    public List<CollectibleRewardEvent> getCollectibleRewards() {
+        return this.collectibleRewards;
+    }
+
+    /**
+     * All the events of the turn, in the order in which they happened.
+     *
+     * @return Unmodifiable list of events.
+     */
+    public List<Object> getEvents() {
+        return this.events;
+    }
+
+    public List<PlayerActionEvent> getPlayerActions() {
+        return this.playerActions;
+    }
+
+    public List<PlayerDeathEvent> getPlayerDeaths() {
+        return this.playerDeaths;
+    }
+
+    public List<SurvivalRewardEvent> getSurvivalRewards() {
+        return this.survivalRewards;
+    }
+
+    @Override
+    public String toString() {
+        return "TurnDelta [playerActions=" + this.playerActions.size() + ", playerDeaths=" + this.playerDeaths.size() +
+                ", collectibleAdditions=" + this.collectibleAdditions.size() + ", collectibleRemovals=" +
+                this.collectibleRemovals.size() + ", collectibleRewards=" + this.collectibleRewards.size() +
+                ", survivalRewards=" + this.survivalRewards.size() + "]";
+    }
+
+}
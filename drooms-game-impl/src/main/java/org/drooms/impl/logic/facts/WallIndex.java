@@ -0,0 +1,77 @@
+package org.drooms.impl.logic.facts;
+
+import org.drooms.api.Node;
+import org.drooms.api.Playground;
+
+/**
+ * Represents type of fact to be inserted into the working memory, so that the
+ * strategy has information about where the walls are. Unlike {@link Wall}, there
+ * is only ever one such fact and it answers for every node of the playground in
+ * constant time.
+ */
+public class WallIndex {
+
+    private final int width, height;
+    private final long[] walls;
+
+    /**
+     * Index the walls of a playground.
+     *
+     * @param playground
+     *            Playground in question.
+     */
+    public WallIndex(final Playground playground) {
+        this.width = playground.getWidth();
+        this.height = playground.getHeight();
+        this.walls = new long[(this.width * this.height + 63) / 64];
+        for (int x = 0; x < this.width; x++) {
+            for (int y = 0; y < this.height; y++) {
+                if (!playground.isAvailable(x, y)) {
+                    final int bit = this.getBit(x, y);
+                    this.walls[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+    }
+
+    private int getBit(final int x, final int y) {
+        return y * this.width + x;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Whether or not there is a wall at a given position.
+     *
+     * @param x
+     *            Horizontal co-ordinate.
+     * @param y
+     *            Vertical co-ordinate.
+     * @return True if wall. Anything outside of the playground is a wall.
+     */
+    public boolean isWall(final int x, final int y) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return true;
+        }
+        final int bit = this.getBit(x, y);
+        return (this.walls[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Whether or not a given node is a wall.
+     *
+     * @param node
+     *            Node in question.
+     * @return True if wall.
+     */
+    public boolean isWall(final Node node) {
+        return this.isWall(node.getX(), node.getY());
+    }
+
+}
@@ -1,12 +1,12 @@
 package org.drooms.impl.util;
 
 import org.drooms.impl.logic.PathTracker;
+import org.drooms.util.KieBaseCache;
+import org.drooms.util.StrategyDiskCache;
 import org.kie.api.KieBase;
-import org.kie.api.KieBaseConfiguration;
 import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
 import org.kie.api.builder.ReleaseId;
-import org.kie.api.conf.EventProcessingOption;
-import org.kie.api.runtime.KieContainer;
 import org.slf4j.Logger;
 
 import java.util.*;
@@ -22,26 +22,44 @@ public class DroomsStrategyValidator implements Callable<DroomsStrategyValidator
     private final List<String> errors = new LinkedList<>();
     private final List<String> warnings = new LinkedList<>();
 
-    private static final Map<String, Future<DroomsStrategyValidator>> validators = new HashMap<>();
-    private static final ExecutorService E = Executors.newCachedThreadPool();
+    /**
+     * Cached results are specific to the checks performed; bump the number when the checks change.
+     */
+    private static final String DISK_CACHE_KIND = "validation-2";
+
+    private static final ConcurrentMap<String, Future<DroomsStrategyValidator>> validators = new
+            ConcurrentHashMap<>();
 
-    private static String getInternalId(final ReleaseId strategyReleaseId) {
+    static String getInternalId(final ReleaseId strategyReleaseId) {
         return strategyReleaseId.getGroupId().trim() + ":" + strategyReleaseId.getArtifactId().trim() + ":" +
                 strategyReleaseId.getVersion().trim();
     }
 
+    /**
+     * Validate the strategy, unless it has already been validated. When multiple threads ask for the same strategy at
+     * the same time, only one of them will validate it and the others will wait for the result. Validation runs on
+     * the calling thread; see {@link StrategyRegistry} for validating many strategies at once.
+     *
+     * @param strategyReleaseId
+     *            Strategy in question, in the form of a kjar.
+     * @return The validation result.
+     */
     public static DroomsStrategyValidator getInstance(final ReleaseId strategyReleaseId) {
         final String internalId = DroomsStrategyValidator.getInternalId(strategyReleaseId);
-        synchronized (DroomsStrategyValidator.class) {
-            if (!DroomsStrategyValidator.validators.containsKey(internalId)) {
-                DroomsStrategyValidator.validators.put(internalId, DroomsStrategyValidator.E.submit(new
-                        DroomsStrategyValidator(strategyReleaseId)));
-            }
+        final FutureTask<DroomsStrategyValidator> validation = new FutureTask<>(new DroomsStrategyValidator
+                (strategyReleaseId));
+        final Future<DroomsStrategyValidator> existing = DroomsStrategyValidator.validators.putIfAbsent(internalId,
+                validation);
+        final Future<DroomsStrategyValidator> result = existing == null ? validation : existing;
+        if (existing == null) {
+            validation.run();
         }
         try {
-            System.out.println(validators);
-            return DroomsStrategyValidator.validators.get(internalId).get();
-        } catch (InterruptedException | ExecutionException e) {
+            return result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating strategy " + internalId + ".", e);
+        } catch (final ExecutionException e) {
             throw new IllegalStateException("This should not have happened.", e);
         }
     }
@@ -91,12 +109,51 @@ public class DroomsStrategyValidator implements Callable<DroomsStrategyValidator
     }
 
     public DroomsStrategyValidator call() {
-        final KieServices ks = KieServices.Factory.get();
+        // the same kjar always validates the same way
+        final StrategyDiskCache disk = StrategyDiskCache.getInstance();
+        // the kjar is resolved and hashed only once, for both the disk and the compiled strategy
+        final KieModule module = disk.isEnabled() ? KieServices.Factory.get().getRepository().getKieModule(this
+                .releaseId) : null;
+        final String checksum = module == null ? null : StrategyDiskCache.getChecksum(module);
+        final String diskKey = disk.getKey(this.releaseId, checksum);
+        if (diskKey != null) {
+            final Properties cached = disk.loadProperties(diskKey, DroomsStrategyValidator.DISK_CACHE_KIND);
+            if (cached != null) {
+                this.restore(cached);
+                return this;
+            }
+        }
+        this.validate(module, checksum);
+        if (diskKey != null) {
+            disk.storeProperties(diskKey, DroomsStrategyValidator.DISK_CACHE_KIND, this.toProperties());
+        }
+        return this;
+    }
+
+    private void restore(final Properties cached) {
+        for (int i = 0; cached.containsKey("error." + i); i++) {
+            this.errors.add(cached.getProperty("error." + i));
+        }
+        for (int i = 0; cached.containsKey("warning." + i); i++) {
+            this.warnings.add(cached.getProperty("warning." + i));
+        }
+    }
+
+    private Properties toProperties() {
+        final Properties result = new Properties();
+        for (int i = 0; i < this.errors.size(); i++) {
+            result.setProperty("error." + i, this.errors.get(i));
+        }
+        for (int i = 0; i < this.warnings.size(); i++) {
+            result.setProperty("warning." + i, this.warnings.get(i));
+        }
+        return result;
+    }
+
+    private void validate(final KieModule module, final String checksum) {
         try {
-            final KieContainer container = ks.newKieContainer(this.releaseId);
-            final KieBaseConfiguration config = ks.newKieBaseConfiguration();
-            config.setOption(EventProcessingOption.STREAM);
-            final KieBase kbase = container.newKieBase(config);
+            // the compiled strategy is shared with the gameplay
+            final KieBase kbase = KieBaseCache.getInstance().get(this.releaseId, module, checksum);
             final KnowledgeSessionValidationHelper helper = new KnowledgeSessionValidationHelper(kbase);
             this.validateGlobal(helper, "logger", Logger.class, false);
             this.validateGlobal(helper, "tracker", PathTracker.class, false);
@@ -107,7 +164,6 @@ public class DroomsStrategyValidator implements Callable<DroomsStrategyValidator
             // KieServices throw RuntimeException when KieModule or default KieBase is not found
             report(ex.getMessage(), true);
         }
-        return this;
     }
 
     private void report(final String report, final boolean isError) {
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Prepares the game properties by reading them from a property file.
@@ -41,14 +42,94 @@ import java.util.Properties;
  * <dd>The maximum amount of time that the {@link Player}'s Strategy has to make a decision on the next movement
  * of the worm. If it doesn't make it in time, STAY is enforced, potentially leading to the worm being terminated for
  * inactivity.</dd>
+ * <dt>worm.timeout.millis (defaults to worm.timeout.seconds)</dt>
+ * <dd>The same as 'worm.timeout.seconds', only in milliseconds. When given, takes precedence; the timeout in seconds
+ * that the {@link Player}'s Strategy is told about is then this one, rounded up.</dd>
+ * <dt>worm.timeout.mode (defaults to WALL)</dt>
+ * <dd>How the time that the {@link Player}'s Strategy spent on a decision is measured. See {@link TimeoutMode} for the
+ * possible values.</dd>
+ * <dt>worm.rules.budget (defaults to 10000)</dt>
+ * <dd>In {@link TimeoutMode#RULES}, how many rules the {@link Player}'s Strategy can fire for a single decision.</dd>
+ * <dt>worm.timebank.millis (defaults to 0)</dt>
+ * <dd>When greater than 0, the per-turn timeout no longer applies. Instead, every {@link Player}'s Strategy gets this
+ * much time for the whole game. Time not used in one turn carries over to the next.</dd>
+ * <dt>worm.timebank.increment.millis (defaults to 0)</dt>
+ * <dd>How much time is added to the time bank with every turn.</dd>
+ * <dt>worm.warmup.turns (defaults to 0)</dt>
+ * <dd>How many synthetic turns every {@link Player}'s Strategy should play before the game starts, so that it doesn't
+ * run out of time in the first turns just because the JVM and Drools are not yet warmed up.</dd>
  * <dt>worm.survival.bonus (defaults to 5)</dt>
  * <dd>The amount of points that the worm will be awarded upon surviving another worm.</dd>
+ * <dt>worm.facts.walls (defaults to false)</dt>
+ * <dd>Whether the {@link Player}'s Strategy should get a separate fact for every wall node. Walls are always available
+ * to the Strategy through a single index fact; separate facts make the working memory grow with the size of the
+ * playground.</dd>
+ * <dt>worm.decision.mode (defaults to SEQUENTIAL)</dt>
+ * <dd>How the {@link Player}s' Strategies are given their time to make decisions. See {@link DecisionMode} for the
+ * possible values.</dd>
  * </dl>
  */
 public class GameProperties extends CommonProperties {
 
     public static final int FIRST_TURN_NUMBER = 1;
 
+    /**
+     * In {@link TimeoutMode#CPU}, how many times the timeout can pass on the clock before the decision is stopped.
+     */
+    public static final int CPU_TIMEOUT_WALL_CLOCK_FACTOR = 4;
+
+    /**
+     * In {@link TimeoutMode#RULES}, how many times the timeout can pass on the clock before the decision is stopped.
+     */
+    public static final int RULES_TIMEOUT_WALL_CLOCK_FACTOR = 10;
+
+    /**
+     * The ways in which the {@link Player}s' Strategies can be given their time to make decisions.
+     */
+    public enum DecisionMode {
+
+        /**
+         * One player after another. The length of a turn is the sum of the time that all the players took to decide.
+         */
+        SEQUENTIAL,
+        /**
+         * One player after another, but the next players are given the changes of the turn while the previous ones are
+         * still deciding. The length of a turn is the sum of the time that all the players took to decide.
+         */
+        PIPELINED,
+        /**
+         * All players at once, each with its own time limit. The length of a turn is the time that the slowest player
+         * took to decide.
+         */
+        PARALLEL
+
+    }
+
+    /**
+     * The ways in which the time spent by the {@link Player}s' Strategies on their decisions can be measured.
+     */
+    public enum TimeoutMode {
+
+        /**
+         * Time passed on the clock, no matter what the Strategy was doing in the meantime.
+         */
+        WALL,
+        /**
+         * Processor time consumed by the thread making the decision. Pauses and other work on the machine are not
+         * counted. A Strategy which waits without consuming any processor time will still be stopped once it has
+         * taken {@link GameProperties#CPU_TIMEOUT_WALL_CLOCK_FACTOR} times as long on the clock.
+         */
+        CPU,
+        /**
+         * Number of rules fired by the Strategy, up to 'worm.rules.budget'. The decisions no longer depend on how fast
+         * or how busy the machine is. The clock still applies, but only as a safety net for Strategies stuck inside a
+         * single rule; they are stopped once they have taken {@link GameProperties#RULES_TIMEOUT_WALL_CLOCK_FACTOR}
+         * times the timeout.
+         */
+        RULES
+
+    }
+
     public static class CollectibleType {
 
         private final int expiration;
@@ -87,11 +168,19 @@ public class GameProperties extends CommonProperties {
     }
 
     private final Collection<CollectibleType> collectibleTypes;
+    private final DecisionMode decisionMode;
+    private final boolean wallFactsEnabled;
     private final int deadWormBonus;
     private final int maximumInactiveTurns;
     private final int maximumTurns;
     private final int startingWormLength;
     private final int strategyTimeoutInSeconds;
+    private final long strategyTimeoutInMillis;
+    private final TimeoutMode timeoutMode;
+    private final int ruleBudget;
+    private final int warmUpTurns;
+    private final long timeBankInMillis;
+    private final long timeBankIncrementInMillis;
 
     private GameProperties(final Properties p) {
         super(p);
@@ -99,7 +188,31 @@ public class GameProperties extends CommonProperties {
         this.maximumInactiveTurns = Integer.valueOf(this.getOptionalProperty("worm.max.inactive.turns", "3"));
         this.maximumTurns = Integer.valueOf(this.getOptionalProperty("worm.max.turns", "1000"));
         this.deadWormBonus = Integer.valueOf(this.getOptionalProperty("worm.survival.bonus", "5"));
-        this.strategyTimeoutInSeconds = Integer.valueOf(this.getOptionalProperty("worm.timeout.seconds", "1"));
+        final int timeoutInSeconds = Integer.valueOf(this.getOptionalProperty("worm.timeout.seconds", "1"));
+        this.strategyTimeoutInMillis = Long.valueOf(this.getOptionalProperty("worm.timeout.millis",
+                String.valueOf(TimeUnit.SECONDS.toMillis(timeoutInSeconds))).trim());
+        if (this.strategyTimeoutInMillis < 1) {
+            throw new IllegalStateException("Strategy timeout must be positive.");
+        }
+        // whichever was given, the seconds always agree with the timeout that is actually enforced
+        this.strategyTimeoutInSeconds = (int) Math.min(Integer.MAX_VALUE, (this.strategyTimeoutInMillis + 999) /
+                1000);
+        this.warmUpTurns = Integer.valueOf(this.getOptionalProperty("worm.warmup.turns", "0").trim());
+        this.ruleBudget = Integer.valueOf(this.getOptionalProperty("worm.rules.budget", "10000").trim());
+        if (this.ruleBudget < 1) {
+            throw new IllegalStateException("Rule budget must be positive.");
+        }
+        this.timeBankInMillis = Long.valueOf(this.getOptionalProperty("worm.timebank.millis", "0").trim());
+        this.timeBankIncrementInMillis = Long.valueOf(this.getOptionalProperty("worm.timebank.increment.millis",
+                "0").trim());
+        if (this.timeBankInMillis < 0 || this.timeBankIncrementInMillis < 0) {
+            throw new IllegalStateException("Time bank can not be negative.");
+        }
+        this.timeoutMode = TimeoutMode.valueOf(this.getOptionalProperty("worm.timeout.mode",
+                TimeoutMode.WALL.name()).trim().toUpperCase());
+        this.decisionMode = DecisionMode.valueOf(this.getOptionalProperty("worm.decision.mode",
+                DecisionMode.SEQUENTIAL.name()).trim().toUpperCase());
+        this.wallFactsEnabled = Boolean.valueOf(this.getOptionalProperty("worm.facts.walls", "false").trim());
         final Collection<CollectibleType> collectibleTypes = new ArrayList<CollectibleType>();
         for (final String collectibleName : this.getMandatoryProperty("collectibles").split("\\Q,\\E")) {
             final int expiration = Integer.valueOf(this.getMandatoryProperty("collectible.expiration."
@@ -116,6 +229,10 @@ public class GameProperties extends CommonProperties {
         return this.collectibleTypes;
     }
 
+    public DecisionMode getDecisionMode() {
+        return this.decisionMode;
+    }
+
     public int getDeadWormBonus() {
         return this.deadWormBonus;
     }
@@ -128,6 +245,10 @@ public class GameProperties extends CommonProperties {
         return this.maximumTurns;
     }
 
+    public int getRuleBudget() {
+        return this.ruleBudget;
+    }
+
     public int getStartingWormLength() {
         return this.startingWormLength;
     }
@@ -136,4 +257,32 @@ public class GameProperties extends CommonProperties {
         return this.strategyTimeoutInSeconds;
     }
 
+    public long getStrategyTimeoutInMillis() {
+        return this.strategyTimeoutInMillis;
+    }
+
+    public long getTimeBankIncrementInMillis() {
+        return this.timeBankIncrementInMillis;
+    }
+
+    public long getTimeBankInMillis() {
+        return this.timeBankInMillis;
+    }
+
+    public TimeoutMode getTimeoutMode() {
+        return this.timeoutMode;
+    }
+
+    public int getWarmUpTurns() {
+        return this.warmUpTurns;
+    }
+
+    public boolean isTimeBankEnabled() {
+        return this.timeBankInMillis > 0;
+    }
+
+    public boolean isWallFactsEnabled() {
+        return this.wallFactsEnabled;
+    }
+
 }
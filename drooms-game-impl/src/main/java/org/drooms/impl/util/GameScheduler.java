@@ -0,0 +1,126 @@
+package org.drooms.impl.util;
+
+import org.drooms.impl.GameController;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many games at once on a fixed number of threads. Games played through
+ * {@link GameController#playAsync(org.drooms.api.Playground, java.util.Collection, java.io.File, GameScheduler)} are
+ * split into phases (resolving the turn, preparing the players, the players' decisions), each of which is a separate
+ * task for this scheduler. No game thread is held while a game waits for its players to decide; time limits are
+ * enforced by a timer instead.
+ *
+ * <p>
+ * Strategies themselves can not be interrupted in the middle of a rule, so whatever blocks on a strategy (building the
+ * sessions, warming them up, the decisions themselves and disposing of the sessions) runs on a separate pool of
+ * workers, shared by all the games. There are as many workers as there are processors available to the JVM, no matter
+ * how many games are being played; a decision waiting for a free worker does not hold a thread, and its time-box only
+ * starts once it does get one. Tasks on the workers must never wait for other tasks on the workers.
+ * </p>
+ *
+ * <p>
+ * The default instance has as many threads as there are processors available to the JVM. This can be overridden
+ * through the 'drooms.scheduler.threads' system property.
+ * </p>
+ */
+public class GameScheduler {
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger(0);
+        private final String prefix;
+
+        public DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, this.prefix + "-" + this.counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+
+    }
+
+    private static final GameScheduler DEFAULT = new GameScheduler(Integer.getInteger("drooms.scheduler.threads",
+            Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Return the process-wide scheduler. It is never shut down; its threads will not prevent the JVM from terminating.
+     *
+     * @return The scheduler.
+     */
+    public static GameScheduler getDefault() {
+        return GameScheduler.DEFAULT;
+    }
+
+    private final ExecutorService executor;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final int threads;
+
+    /**
+     * Initialize the class.
+     *
+     * @param threads
+     *            How many games can be doing work at the same time.
+     */
+    public GameScheduler(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Scheduler needs at least one thread.");
+        }
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("drooms-game"));
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new DaemonThreadFactory("drooms-strategy"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("drooms-timer"));
+    }
+
+    /**
+     * The pool on which all the phases of all the games are executed.
+     *
+     * @return The pool.
+     */
+    public ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * The pool on which the strategies of all the games are run. Tasks submitted here may block for as long as the
+     * time-boxes allow.
+     *
+     * @return The pool.
+     */
+    public ExecutorService getWorkers() {
+        return this.workers;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * The timer used to enforce the time limits on player decisions. Tasks scheduled here must be short.
+     *
+     * @return The timer.
+     */
+    public ScheduledExecutorService getTimer() {
+        return this.timer;
+    }
+
+    /**
+     * Stop accepting new work. Games currently being played will be interrupted.
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+        this.workers.shutdownNow();
+        this.timer.shutdownNow();
+    }
+
+}
@@ -0,0 +1,163 @@
+package org.drooms.impl.util;
+
+import org.drooms.api.Player;
+import org.drooms.util.KieBaseCache;
+import org.kie.api.KieBase;
+import org.kie.api.builder.ReleaseId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable collection of strategies that have all been validated and compiled at once, intended to be built once per
+ * tournament and shared by all of its games. Instances are thread-safe.
+ *
+ * <p>
+ * The compiled strategies are {@link KieBaseCache#pin(ReleaseId) pinned} in the {@link KieBaseCache}, where the games
+ * look for them through {@link Player#constructKieBase()}; however many strategies a tournament has, none of them will
+ * be compiled again.
+ * </p>
+ */
+public final class StrategyRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StrategyRegistry.class);
+
+    private static final class Entry {
+
+        private final DroomsStrategyValidator validator;
+        private final KieBase kieBase;
+
+        public Entry(final DroomsStrategyValidator validator, final KieBase kieBase) {
+            this.validator = validator;
+            this.kieBase = kieBase;
+        }
+
+    }
+
+    /**
+     * Validate and compile the strategies of all the players, as many at a time as there are processors.
+     *
+     * @param players
+     *            Players whose strategies to validate.
+     * @return The strategies.
+     */
+    public static StrategyRegistry validate(final Collection<Player> players) {
+        return StrategyRegistry.validate(players, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Validate and compile the strategies of all the players. Players sharing a strategy only have it validated once.
+     *
+     * @param players
+     *            Players whose strategies to validate.
+     * @param threads
+     *            How many strategies to validate at a time.
+     * @return The strategies.
+     */
+    public static StrategyRegistry validate(final Collection<Player> players, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required for validation.");
+        }
+        final List<ReleaseId> strategies = players.stream().map(Player::getStrategyReleaseId).distinct().collect
+                (Collectors.toList());
+        final ExecutorService e = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, strategies.size())));
+        final long start = System.nanoTime();
+        try {
+            final Map<String, Future<Entry>> futures = new LinkedHashMap<>();
+            strategies.forEach(releaseId -> futures.computeIfAbsent(DroomsStrategyValidator.getInternalId
+                    (releaseId), key -> e.submit(() -> {
+                        final DroomsStrategyValidator validator = DroomsStrategyValidator.getInstance(releaseId);
+                        // invalid strategies may not even compile; valid ones stay cached for the games to use
+                        final KieBase kieBase = validator.isValid() ? KieBaseCache.getInstance().pin(releaseId) :
+                                null;
+                        return new Entry(validator, kieBase);
+                    })));
+            final Map<String, Entry> entries = new LinkedHashMap<>();
+            for (final Map.Entry<String, Future<Entry>> future : futures.entrySet()) {
+                entries.put(future.getKey(), future.getValue().get());
+            }
+            StrategyRegistry.LOGGER.info("{} strategies validated in {} ms.", entries.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new StrategyRegistry(entries);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating strategies.", ex);
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException("Failed validating strategies.", ex.getCause());
+        } finally {
+            e.shutdownNow();
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private StrategyRegistry(final Map<String, Entry> entries) {
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Whether or not the strategy has been validated by this registry.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @return True if known.
+     */
+    public boolean contains(final ReleaseId releaseId) {
+        return this.entries.containsKey(DroomsStrategyValidator.getInternalId(releaseId));
+    }
+
+    private Entry getEntry(final ReleaseId releaseId) {
+        final Entry entry = this.entries.get(DroomsStrategyValidator.getInternalId(releaseId));
+        if (entry == null) {
+            throw new IllegalArgumentException("Strategy not in registry: " + releaseId);
+        }
+        return entry;
+    }
+
+    /**
+     * Retrieve the compiled strategy.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @return The compiled strategy, or null if the strategy is not valid.
+     * @throws IllegalArgumentException
+     *             When the strategy is not known to this registry.
+     */
+    public KieBase getKieBase(final ReleaseId releaseId) {
+        return this.getEntry(releaseId).kieBase;
+    }
+
+    /**
+     * Retrieve the validation result.
+     *
+     * @param releaseId
+     *            Strategy in question.
+     * @return The validation result.
+     * @throws IllegalArgumentException
+     *             When the strategy is not known to this registry.
+     */
+    public DroomsStrategyValidator getValidator(final ReleaseId releaseId) {
+        return this.getEntry(releaseId).validator;
+    }
+
+    /**
+     * How many strategies there are in this registry.
+     *
+     * @return Number of distinct strategies.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
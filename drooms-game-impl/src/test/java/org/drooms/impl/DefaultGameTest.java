@@ -0,0 +1,106 @@
+package org.drooms.impl;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Player;
+import org.drooms.api.Playground;
+import org.drooms.impl.logic.PathTrackerTest;
+import org.drooms.impl.util.DroomsStrategyValidatorTest;
+import org.drooms.impl.util.GameScheduler;
+import org.junit.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class DefaultGameTest {
+
+    private static final String PROPERTIES = "collectibles=cheap\n" +
+            "collectible.expiration.cheap=2\n" +
+            "collectible.price.cheap=1\n" +
+            "collectible.probability.cheap=0.9\n" +
+            "worm.max.inactive.turns=20\n" +
+            "worm.max.turns=20\n";
+
+    private static String play(final long seed) throws IOException {
+        return DefaultGameTest.play(seed, null);
+    }
+
+    /**
+     * Play a game and return its report.
+     *
+     * @param seed
+     *            Seed of the game.
+     * @param scheduler
+     *            If not null, the game is played asynchronously on this scheduler.
+     */
+    private static String play(final long seed, final GameScheduler scheduler) throws IOException {
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId releaseId = ks.getRepository().addKieModule(ks.getResources().newClassPathResource
+                ("test-strategy-3.0", DroomsStrategyValidatorTest.class)).getReleaseId();
+        final List<Player> players = Arrays.asList(new Player("a", releaseId), new Player("b", releaseId));
+        final DefaultGame game = new DefaultGame();
+        final Playground playground = game.buildPlayground("test", PathTrackerTest.class.getResourceAsStream
+                ("testing.playground"));
+        game.setContext(new ByteArrayInputStream(DefaultGameTest.PROPERTIES.getBytes(StandardCharsets.UTF_8)));
+        game.setSeed(seed);
+        final Map<Player, Integer> points;
+        if (scheduler == null) {
+            points = game.play(playground, players, null);
+        } else {
+            try {
+                points = game.playAsync(playground, players, null, scheduler).get(60, TimeUnit.SECONDS);
+            } catch (InterruptedException | ExecutionException | TimeoutException ex) {
+                throw new IllegalStateException("Asynchronous game failed.", ex);
+            }
+        }
+        Assertions.assertThat(points.keySet()).containsOnly(players.toArray(new Player[players.size()]));
+        final StringWriter w = new StringWriter();
+        game.getReport().write(w);
+        // decision times are the only thing that can differ between replays
+        return w.toString().replaceAll("<decisionTime[^>]*>", "<decisionTime>");
+    }
+
+    @Test
+    public void testSameSeedReplays() throws IOException {
+        final String report = DefaultGameTest.play(42);
+        Assertions.assertThat(report).contains("seed='42'");
+        Assertions.assertThat(DefaultGameTest.play(42)).isEqualTo(report);
+    }
+
+    private static CompletableFuture<String> playLater(final long seed, final GameScheduler scheduler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return DefaultGameTest.play(seed, scheduler);
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Cannot write report.", ex);
+            }
+        });
+    }
+
+    @Test(timeout = 120000)
+    public void testPlayAsyncSameAsPlay() throws Exception {
+        final String first = DefaultGameTest.play(42);
+        final String second = DefaultGameTest.play(7);
+        // a single thread is enough for two games at once, as nothing blocks it while the players decide
+        final GameScheduler scheduler = new GameScheduler(1);
+        try {
+            final CompletableFuture<String> firstAsync = DefaultGameTest.playLater(42, scheduler);
+            final CompletableFuture<String> secondAsync = DefaultGameTest.playLater(7, scheduler);
+            Assertions.assertThat(firstAsync.get()).isEqualTo(first);
+            Assertions.assertThat(secondAsync.get()).isEqualTo(second);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+}
@@ -3,12 +3,30 @@ package org.drooms.impl;
 import org.assertj.core.api.Assertions;
 import org.drooms.api.Node;
 import org.drooms.api.Playground;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class DefaultPlaygroundTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testGoodPlayground() {
         final Playground p = new DefaultGame().buildPlayground("test",
@@ -19,6 +37,163 @@ public class DefaultPlaygroundTest {
         Assertions.assertThat(startingPositions).hasSize(2);
     }
 
+    @Test
+    public void testNeighboursMatchGraph() {
+        final Playground p = new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"));
+        Assertions.assertThat(p.getNodeCount()).isEqualTo(p.getWidth() * p.getHeight());
+        for (int id = 0; id < p.getNodeCount(); id++) {
+            final Node n = p.getNodeById(id);
+            Assertions.assertThat(n.getId()).isEqualTo(id);
+            Assertions.assertThat(p.getNodeAt(n.getX(), n.getY())).isSameAs(n);
+            final Set<Node> neighbours = new HashSet<>();
+            for (int i = 0; i < p.getNeighbourCount(id); i++) {
+                neighbours.add(p.getNodeById(p.getNeighbourId(id, i)));
+            }
+            if (n.getType() == Node.Type.WALL) {
+                Assertions.assertThat(neighbours).isEmpty();
+            } else {
+                Assertions.assertThat(neighbours).isEqualTo(new HashSet<>(p.getGraph().getNeighbors(n)));
+            }
+        }
+        Assertions.assertThat(p.getNodeAt(-1, 0).getId()).isEqualTo(-1);
+    }
+
+    @Test
+    public void testBorderIsPreallocated() {
+        final Playground p = new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"));
+        for (int x = -1; x <= p.getWidth(); x++) {
+            for (final int y : new int[]{-1, p.getHeight()}) {
+                final Node n = p.getNodeAt(x, y);
+                Assertions.assertThat(n.getType()).isEqualTo(Node.Type.WALL);
+                Assertions.assertThat(n.getX()).isEqualTo(x);
+                Assertions.assertThat(n.getY()).isEqualTo(y);
+                Assertions.assertThat(p.getNodeAt(x, y)).isSameAs(n);
+            }
+        }
+        for (int y = 0; y < p.getHeight(); y++) {
+            for (final int x : new int[]{-1, p.getWidth()}) {
+                final Node n = p.getNodeAt(x, y);
+                Assertions.assertThat(n.getType()).isEqualTo(Node.Type.WALL);
+                Assertions.assertThat(p.getNodeAt(x, y)).isSameAs(n);
+            }
+        }
+        // further away, walls are still walls
+        Assertions.assertThat(p.getNodeAt(-5, -5).getType()).isEqualTo(Node.Type.WALL);
+    }
+
+    @Test
+    public void testPortals() {
+        final Playground p = new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"));
+        for (int id = 0; id < p.getNodeCount(); id++) {
+            final Node n = p.getNodeById(id);
+            if (n.getType() == Node.Type.PORTAL) {
+                final Node other = p.getOtherEndOfPortal(n);
+                Assertions.assertThat(other.getType()).isEqualTo(Node.Type.PORTAL);
+                Assertions.assertThat(other).isNotEqualTo(n);
+                Assertions.assertThat(p.getOtherEndOfPortal(other)).isSameAs(n);
+            }
+        }
+    }
+
+    @Test
+    public void testNodesAcrossChunks() {
+        // large enough for the nodes to be stored in several chunks
+        final StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                sb.append(x == 50 && y == 50 ? '@' : ' ');
+            }
+            sb.append('\n');
+        }
+        final Playground p = new DefaultGame().buildPlayground("test", new ByteArrayInputStream(sb.toString()
+                .getBytes()));
+        Assertions.assertThat(p.getNodeCount()).isEqualTo(10000);
+        for (int id = p.getNodeCount() - 1; id >= 0; id -= 97) {
+            final Node n = p.getNodeById(id);
+            Assertions.assertThat(n.getId()).isEqualTo(id);
+            Assertions.assertThat(p.getNodeById(id)).isSameAs(n);
+            Assertions.assertThat(p.getNodeAt(n.getX(), n.getY())).isSameAs(n);
+        }
+    }
+
+    @Test
+    public void testNeighboursOfLargePlayground() {
+        // too large for the neighbour tables, so the neighbours are computed from the cells
+        final int width = 1024;
+        final int height = DefaultPlayground.MAX_TABLED_NODES / width + 1;
+        final char[] row = new char[width];
+        Arrays.fill(row, ' ');
+        final List<String> lines = new ArrayList<>(Collections.nCopies(height, new String(row)));
+        row[0] = 'a';
+        row[1] = '#';
+        lines.set(0, new String(row));
+        row[0] = '@';
+        row[1] = ' ';
+        row[width - 1] = 'a';
+        lines.set(height - 1, new String(row));
+        final Playground p = DefaultPlayground.fromText("test", lines);
+        final Node portal = p.getNodeAt(0, 0);
+        final Node otherEnd = p.getNodeAt(width - 1, height - 1);
+        Assertions.assertThat(p.getOtherEndOfPortal(portal)).isSameAs(otherEnd);
+        Assertions.assertThat(p.getOtherEndOfPortal(otherEnd)).isSameAs(portal);
+        Assertions.assertThat(p.getNeighbourCount(portal.getId())).isEqualTo(2);
+        Assertions.assertThat(p.getNeighbourId(portal.getId(), 0)).isEqualTo(p.getNodeAt(0, 1).getId());
+        Assertions.assertThat(p.getNeighbourId(portal.getId(), 1)).isEqualTo(otherEnd.getId());
+        Assertions.assertThat(p.getNeighbourCount(p.getNodeAt(1, 0).getId())).isEqualTo(0);
+        Assertions.assertThat(p.getNeighbourCount(p.getNodeAt(5, 5).getId())).isEqualTo(4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNoSuchNode() {
+        final Playground p = new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"));
+        p.getNodeById(p.getNodeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAPortal() {
+        final Playground p = new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"));
+        p.getOtherEndOfPortal(p.getStartingPositions().get(0));
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+        final File text = this.folder.newFile("good_playground.txt");
+        try (final InputStream is = this.getClass().getResourceAsStream("good_playground.txt")) {
+            Files.copy(is, text.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        final File binary = this.folder.newFile("good_playground.bin");
+        PlaygroundConverter.convert(text, binary);
+        final Playground p = new DefaultGame().buildPlayground("test", text);
+        final Playground mapped = new DefaultGame().buildPlayground("test", binary);
+        final Playground streamed = new DefaultGame().buildPlayground("test", new FileInputStream(binary));
+        for (final Playground other : new Playground[]{mapped, streamed}) {
+            Assertions.assertThat(other.getWidth()).isEqualTo(p.getWidth());
+            Assertions.assertThat(other.getHeight()).isEqualTo(p.getHeight());
+            Assertions.assertThat(other.getStartingPositions()).isEqualTo(p.getStartingPositions());
+            for (int id = 0; id < p.getNodeCount(); id++) {
+                Assertions.assertThat(other.getNodeById(id)).isEqualTo(p.getNodeById(id));
+                Assertions.assertThat(other.getNeighbourCount(id)).isEqualTo(p.getNeighbourCount(id));
+                for (int i = 0; i < p.getNeighbourCount(id); i++) {
+                    Assertions.assertThat(other.getNeighbourId(id, i)).isEqualTo(p.getNeighbourId(id, i));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTruncatedBinary() throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ((DefaultPlayground) new DefaultGame().buildPlayground("test",
+                this.getClass().getResourceAsStream("good_playground.txt"))).writeBinary(os);
+        final byte[] data = os.toByteArray();
+        new DefaultGame().buildPlayground("test", new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testBadPortal1() {
         new DefaultGame().buildPlayground("test", this.getClass().getResourceAsStream("playground_multiportal.txt"));
@@ -0,0 +1,99 @@
+package org.drooms.impl;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Player;
+import org.drooms.impl.logic.PathTrackerTest;
+import org.drooms.impl.util.DroomsStrategyValidatorTest;
+import org.drooms.impl.util.GameScheduler;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class DroomsGameTest {
+
+    private static final String PROPERTIES = "collectibles=cheap\n" +
+            "collectible.expiration.cheap=2\n" +
+            "collectible.price.cheap=1\n" +
+            "collectible.probability.cheap=0.9\n" +
+            "worm.max.inactive.turns=5\n" +
+            "worm.max.turns=5\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Player> players;
+    private DroomsGame game;
+
+    @Before
+    public void setUp() throws IOException {
+        final File playground = this.folder.newFile("testing.playground");
+        try (final InputStream s = PathTrackerTest.class.getResourceAsStream("testing.playground")) {
+            Files.copy(s, playground.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        final File config = this.folder.newFile("game.properties");
+        Files.write(config.toPath(), DroomsGameTest.PROPERTIES.getBytes(StandardCharsets.UTF_8));
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId releaseId = ks.getRepository().addKieModule(ks.getResources().newClassPathResource
+                ("test-strategy-3.0", DroomsStrategyValidatorTest.class)).getReleaseId();
+        this.players = Arrays.asList(new Player("a", releaseId), new Player("b", releaseId));
+        this.game = new DroomsGame(DefaultGame.class, playground, this.players, config, this.folder.newFolder
+                ("reports"));
+    }
+
+    private void assertPlayed(final Map<Player, Integer> points) {
+        Assertions.assertThat(points.keySet()).containsOnly(this.players.toArray(new Player[this.players.size()]));
+        Assertions.assertThat(this.game.isPrepared()).isFalse();
+        final File[] reports = new File(this.folder.getRoot(), "reports").listFiles();
+        Assertions.assertThat(reports).hasSize(1);
+        Assertions.assertThat(new File(reports[0], "report.xml").isFile()).isTrue();
+    }
+
+    @Test
+    public void testPlayPrepared() {
+        this.game.prepare("game");
+        Assertions.assertThat(this.game.isPrepared()).isTrue();
+        this.assertPlayed(this.game.play("game"));
+    }
+
+    @Test
+    public void testPlayDiscarded() {
+        this.game.prepare("game");
+        this.game.discard();
+        Assertions.assertThat(this.game.isPrepared()).isFalse();
+        // the game is prepared again when it is played
+        this.assertPlayed(this.game.play("game"));
+    }
+
+    @Test
+    public void testPlayPreparedUnderOtherName() {
+        this.game.prepare("other");
+        // a game prepared under a different name is not played, but thrown away
+        this.assertPlayed(this.game.play("game"));
+    }
+
+    @Test
+    public void testPlayAsyncPrepared() throws Exception {
+        final GameScheduler scheduler = new GameScheduler(1);
+        try {
+            this.game.prepare("game");
+            this.assertPlayed(this.game.playAsync("game", scheduler).get(60, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+}
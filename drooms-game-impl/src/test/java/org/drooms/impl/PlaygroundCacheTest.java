@@ -0,0 +1,145 @@
+package org.drooms.impl;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Playground;
+import org.drooms.impl.logic.DistanceOracle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PlaygroundCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(final String name, final String content) throws IOException {
+        final File f = new File(this.folder.getRoot(), name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    @Test
+    public void testSharedInstance() throws IOException {
+        final File f = this.write("playground.txt", "###\n#@#\n###\n");
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        Assertions.assertThat(p.getName()).isEqualTo("playground.txt");
+        Assertions.assertThat(cache.get(DefaultGame.class, f)).isSameAs(p);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testChangedFileIsParsedAgain() throws IOException {
+        final File f = this.write("playground.txt", "###\n#@#\n###\n");
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        this.write("playground.txt", "####\n#@@#\n####\n");
+        final Playground p2 = cache.get(DefaultGame.class, f);
+        Assertions.assertThat(p2).isNotSameAs(p);
+        Assertions.assertThat(p2.getStartingPositions()).hasSize(2);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private static long inSeconds(final int fromNow) {
+        return TimeUnit.SECONDS.toMillis(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + fromNow);
+    }
+
+    @Test
+    public void testTouchedFileNotParsedAgain() throws IOException {
+        final File f = this.write("playground.txt", "###\n#@#\n###\n");
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        Assertions.assertThat(f.setLastModified(PlaygroundCacheTest.inSeconds(-10))).isTrue();
+        Assertions.assertThat(cache.get(DefaultGame.class, f)).isSameAs(p);
+    }
+
+    @Test
+    public void testUnchangedStatTrusted() throws IOException {
+        final long lastModified = PlaygroundCacheTest.inSeconds(-10);
+        final File f = this.write("playground.txt", "###\n#@#\n###\n");
+        Assertions.assertThat(f.setLastModified(lastModified)).isTrue();
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        // same length and modification time as an older check; the file is not even read
+        this.write("playground.txt", "###\n#@@\n###\n");
+        Assertions.assertThat(f.setLastModified(lastModified)).isTrue();
+        Assertions.assertThat(cache.get(DefaultGame.class, f)).isSameAs(p);
+    }
+
+    @Test
+    public void testChangeWithinCheckedSecondIsParsedAgain() throws IOException {
+        // modified no sooner than it is checked, so the modification time cannot be trusted
+        final long lastModified = PlaygroundCacheTest.inSeconds(10);
+        final File f = this.write("playground.txt", "###\n#@#\n###\n");
+        Assertions.assertThat(f.setLastModified(lastModified)).isTrue();
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        this.write("playground.txt", "###\n#@@\n###\n");
+        Assertions.assertThat(f.setLastModified(lastModified)).isTrue();
+        final Playground p2 = cache.get(DefaultGame.class, f);
+        Assertions.assertThat(p2).isNotSameAs(p);
+        Assertions.assertThat(p2.getStartingPositions()).hasSize(2);
+    }
+
+    @Test
+    public void testDistancesOfCachedPlayground() throws IOException {
+        final File f = this.write("playground.txt", "#####\n#@  #\n#####\n");
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = cache.get(DefaultGame.class, f);
+        final DistanceOracle distances = cache.getDistances(p);
+        Assertions.assertThat(cache.getDistances(p)).isSameAs(distances);
+        Assertions.assertThat(distances.getDistance(p.getNodeAt(1, 1), p.getNodeAt(3, 1))).isEqualTo(2);
+        // persisted next to the playground
+        Assertions.assertThat(new File(f.getPath() + PlaygroundCache.DISTANCES_SUFFIX).isFile()).isTrue();
+    }
+
+    @Test
+    public void testDistancesOfPlaygroundParsedConcurrently() throws Exception {
+        final File f = this.write("playground.txt", "#####\n#@  #\n#####\n");
+        final PlaygroundCache cache = new PlaygroundCache();
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<DistanceOracle>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getDistances(cache.get(DefaultGame.class, f));
+                }));
+            }
+            start.countDown();
+            // the threads that waited for the parsing get the cached distances too
+            final DistanceOracle distances = results.get(0).get();
+            for (final Future<DistanceOracle> result : results) {
+                Assertions.assertThat(result.get()).isSameAs(distances);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDistancesOfOtherPlayground() {
+        final PlaygroundCache cache = new PlaygroundCache();
+        final Playground p = new DefaultGame().buildPlayground("other", new ByteArrayInputStream("#####\n#@  #\n#####\n"
+                .getBytes(StandardCharsets.UTF_8)));
+        // computed only once, even though the playground is not in the cache
+        Assertions.assertThat(cache.getDistances(p)).isSameAs(cache.getDistances(p));
+        Assertions.assertThat(cache.size()).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.drooms.impl.logic;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Action;
+import org.drooms.api.Player;
+import org.drooms.api.Playground;
+import org.drooms.impl.DefaultGame;
+import org.drooms.impl.PlayerPosition;
+import org.drooms.impl.XmlProgressListener;
+import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameProperties.DecisionMode;
+import org.drooms.impl.util.GameScheduler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class CommandDistributorTest {
+
+    private static final Playground PLAYGROUND = new DefaultGame().buildPlayground("test", PathTrackerTest.class
+            .getResourceAsStream("testing.playground"));
+
+    private static final long TIMEOUT_MILLIS = 500;
+    /**
+     * How much later than its deadline a strategy may be halted, since halting is not instant.
+     */
+    private static final long SLACK_MILLIS = 1000;
+
+    /**
+     * Records how long every decision took.
+     */
+    private static final class TimingListener extends XmlProgressListener {
+
+        private final Map<Player, List<Long>> wallTimes = new ConcurrentHashMap<>();
+        private final Map<Player, Long> warmUpTimes = new ConcurrentHashMap<>();
+
+        public TimingListener(final List<Player> players, final GameProperties properties) {
+            super(CommandDistributorTest.PLAYGROUND, players, properties);
+        }
+
+        @Override
+        public void decisionTimed(final Player p, final long wallTimeInNanos, final long cpuTimeInNanos) {
+            super.decisionTimed(p, wallTimeInNanos, cpuTimeInNanos);
+            this.wallTimes.computeIfAbsent(p, key -> new ArrayList<>()).add(wallTimeInNanos);
+        }
+
+        @Override
+        public void warmUpTimed(final Player p, final int turns, final long wallTimeInNanos) {
+            super.warmUpTimed(p, turns, wallTimeInNanos);
+            this.warmUpTimes.put(p, wallTimeInNanos);
+        }
+
+    }
+
+    /**
+     * One player that decides right away, one that keeps thinking until it runs out of time and one that never
+     * decides.
+     */
+    private static List<Player> getPlayers() {
+        return Arrays.asList(DecisionMakerTest.getPlayer("final", "test-strategy-final"),
+                DecisionMakerTest.getPlayer("thinker", "test-strategy-thinker"), DecisionMakerTest.getPlayer("idle"));
+    }
+
+    /**
+     * Play a few turns and check the decisions and the deadlines.
+     *
+     * @param mode
+     *            Decision mode to play in.
+     * @return How long, in nanoseconds, the longest of the turns took.
+     */
+    private static long play(final DecisionMode mode) {
+        final List<Player> players = CommandDistributorTest.getPlayers();
+        final GameProperties properties = DecisionMakerTest.getGameProperties("worm.decision.mode=" + mode.name() +
+                "\nworm.timeout.millis=" + CommandDistributorTest.TIMEOUT_MILLIS + "\n");
+        final TimingListener listener = new TimingListener(players, properties);
+        final CommandDistributor distributor = new CommandDistributor(CommandDistributorTest.PLAYGROUND, players,
+                listener, properties, null);
+        long longestTurn = 0;
+        try {
+            for (int turn = 0; turn < 3; turn++) {
+                final long start = System.nanoTime();
+                final Map<Player, Action> moves = distributor.execute();
+                longestTurn = Math.max(longestTurn, System.nanoTime() - start);
+                // the same decisions in every mode, in the order of players
+                Assertions.assertThat(moves.keySet()).containsExactly(players.toArray());
+                Assertions.assertThat(new ArrayList<>(moves.values())).containsExactly(Action.MOVE_LEFT,
+                        Action.MOVE_LEFT, Action.NOTHING);
+            }
+        } finally {
+            distributor.terminate();
+        }
+        // every player has its own deadline, which holds
+        final long deadline = TimeUnit.MILLISECONDS.toNanos(CommandDistributorTest.TIMEOUT_MILLIS +
+                CommandDistributorTest.SLACK_MILLIS);
+        players.forEach(player -> {
+            Assertions.assertThat(listener.wallTimes.get(player)).hasSize(3);
+            listener.wallTimes.get(player).forEach(time -> Assertions.assertThat(time).isLessThan(deadline));
+        });
+        // the thinker uses all of its time
+        listener.wallTimes.get(players.get(1)).forEach(time -> Assertions.assertThat(time).isGreaterThanOrEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(CommandDistributorTest.TIMEOUT_MILLIS)));
+        return longestTurn;
+    }
+
+    @Test(timeout = 120000)
+    public void testSequential() {
+        CommandDistributorTest.play(DecisionMode.SEQUENTIAL);
+    }
+
+    @Test(timeout = 120000)
+    public void testParallel() {
+        final long longestTurn = CommandDistributorTest.play(DecisionMode.PARALLEL);
+        // all the players decide at the same time, so the turn only takes as long as the slowest of them
+        Assertions.assertThat(longestTurn).isLessThan(TimeUnit.MILLISECONDS.toNanos(CommandDistributorTest
+                .TIMEOUT_MILLIS + CommandDistributorTest.SLACK_MILLIS));
+    }
+
+    @Test(timeout = 120000)
+    public void testPipelined() {
+        // preparing the sessions in the background must not change the decisions nor anybody's deadline
+        CommandDistributorTest.play(DecisionMode.PIPELINED);
+    }
+
+    @Test(timeout = 120000)
+    public void testWarmUp() throws IOException {
+        final List<Player> players = CommandDistributorTest.getPlayers();
+        final GameProperties properties = DecisionMakerTest.getGameProperties("worm.timeout.millis=" +
+                CommandDistributorTest.TIMEOUT_MILLIS + "\n");
+        final TimingListener listener = new TimingListener(players, properties);
+        final GameScheduler scheduler = new GameScheduler(1);
+        final CommandDistributor distributor = new CommandDistributor(CommandDistributorTest.PLAYGROUND, players,
+                listener, properties, null, scheduler);
+        try {
+            final List<PlayerPosition> positions = new ArrayList<>();
+            players.forEach(player -> positions.add(PlayerPosition.build(CommandDistributorTest.PLAYGROUND, player,
+                    CommandDistributorTest.PLAYGROUND.getStartingPositions().get(positions.size()))));
+            distributor.warmUp(2, positions);
+            // the thinker spends its whole timeout in both of the warm-up turns
+            Assertions.assertThat(listener.warmUpTimes.keySet()).containsOnly(players.toArray());
+            Assertions.assertThat(listener.warmUpTimes.get(players.get(1))).isGreaterThanOrEqualTo(TimeUnit
+                    .MILLISECONDS.toNanos(2 * CommandDistributorTest.TIMEOUT_MILLIS));
+            // warm-up is reported separately from the decisions of the game
+            Assertions.assertThat(listener.wallTimes).isEmpty();
+            distributor.execute();
+            Assertions.assertThat(listener.wallTimes.keySet()).containsOnly(players.toArray());
+        } finally {
+            distributor.terminate();
+            scheduler.shutdown();
+        }
+        final StringWriter w = new StringWriter();
+        listener.write(w);
+        Assertions.assertThat(w.toString()).contains("<warmUpTime");
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        final List<Player> players = Arrays.asList(DecisionMakerTest.getPlayer("a"),
+                DecisionMakerTest.getPlayer("b"));
+        final GameProperties properties = DecisionMakerTest.getGameProperties("");
+        final GameScheduler scheduler = new GameScheduler(1);
+        final CommandDistributor distributor = new CommandDistributor(CommandDistributorTest.PLAYGROUND, players,
+                new XmlProgressListener(CommandDistributorTest.PLAYGROUND, players, properties), properties, null,
+                scheduler);
+        try {
+            for (int turn = 0; turn < 3; turn++) {
+                final Map<Player, Action> moves = distributor.executeAsync().get(10, TimeUnit.SECONDS);
+                // the test strategy never decides
+                Assertions.assertThat(moves.keySet()).containsExactly(players.toArray());
+                Assertions.assertThat(moves.values()).containsOnly(Action.NOTHING);
+            }
+        } finally {
+            distributor.terminate();
+            scheduler.shutdown();
+        }
+    }
+
+}
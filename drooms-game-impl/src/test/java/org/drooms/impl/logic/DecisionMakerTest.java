@@ -0,0 +1,192 @@
+package org.drooms.impl.logic;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Action;
+import org.drooms.api.Node;
+import org.drooms.api.Player;
+import org.drooms.api.Playground;
+import org.drooms.impl.DefaultGame;
+import org.drooms.impl.logic.events.PlayerActionEvent;
+import org.drooms.impl.logic.events.PlayerDeathEvent;
+import org.drooms.impl.logic.facts.TimeBank;
+import org.drooms.impl.logic.facts.TurnDelta;
+import org.drooms.impl.logic.facts.Worm;
+import org.drooms.impl.util.DroomsStrategyValidatorTest;
+import org.drooms.impl.util.GameProperties;
+import org.junit.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class DecisionMakerTest {
+
+    private static final Playground PLAYGROUND = new DefaultGame().buildPlayground("test", PathTrackerTest.class
+            .getResourceAsStream("testing.playground"));
+
+    private static final String PROPERTIES = "collectibles=cheap\n" +
+            "collectible.expiration.cheap=10\n" +
+            "collectible.price.cheap=1\n" +
+            "collectible.probability.cheap=0.1\n";
+
+    static GameProperties getGameProperties(final String additionalProperties) {
+        final String properties = DecisionMakerTest.PROPERTIES + additionalProperties;
+        try {
+            return GameProperties.read(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)));
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Cannot happen.", ex);
+        }
+    }
+
+    static Player getPlayer(final String name) {
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId releaseId = ks.getRepository().addKieModule(ks.getResources().newClassPathResource
+                ("test-strategy-3.0", DroomsStrategyValidatorTest.class)).getReleaseId();
+        return new Player(name, releaseId);
+    }
+
+    static Player getPlayer(final String name, final String strategy) {
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId releaseId = ks.getRepository().addKieModule(ks.getResources().newClassPathResource
+                (strategy, DecisionMakerTest.class)).getReleaseId();
+        return new Player(name, releaseId);
+    }
+
+    @Test(timeout = 60000)
+    public void testFinalDecision() {
+        // the strategy would think forever, if the final decision didn't stop it
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, DecisionMakerTest.getPlayer("a",
+                "test-strategy-final"), DecisionMakerTest.getGameProperties(""), null);
+        try {
+            dm.commit();
+            Assertions.assertThat(dm.call()).isEqualTo(Action.MOVE_LEFT);
+            Assertions.assertThat(dm.getLatestDecision()).isEqualTo(Action.MOVE_LEFT);
+            dm.commit();
+            Assertions.assertThat(dm.getLatestDecision()).isNull();
+        } finally {
+            dm.terminate();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testRuleBudget() {
+        // the strategy would think forever, if the rule budget didn't stop it
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, DecisionMakerTest.getPlayer("a",
+                "test-strategy-thinker"), DecisionMakerTest.getGameProperties("worm.timeout.mode=rules\n" +
+                "worm.rules.budget=1000\n"), null);
+        try {
+            dm.commit();
+            Assertions.assertThat(dm.call()).isEqualTo(Action.MOVE_LEFT);
+        } finally {
+            dm.terminate();
+        }
+    }
+
+    @Test
+    public void testWormFactsBounded() {
+        final Player player = DecisionMakerTest.getPlayer("a");
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, player,
+                DecisionMakerTest.getGameProperties(""), null);
+        try {
+            // the worm will keep going around in a small square
+            final List<Node> square = Arrays.asList(PLAYGROUND.getNodeAt(10, 10), PLAYGROUND.getNodeAt(11, 10),
+                    PLAYGROUND.getNodeAt(11, 11), PLAYGROUND.getNodeAt(10, 11));
+            for (int turn = 0; turn < 1000; turn++) {
+                final Node head = square.get(turn % 4);
+                final List<Node> nodes = Arrays.asList(head, square.get((turn + 3) % 4), square.get((turn + 2) % 4));
+                final TurnDelta.Builder delta = new TurnDelta.Builder();
+                delta.notifyOfPlayerMove(new PlayerActionEvent(player, Action.MOVE_UP, head, nodes));
+                dm.apply(delta.build());
+                dm.commit();
+                Assertions.assertThat(dm.getFacts(Worm.class)).hasSize(nodes.size());
+                Assertions.assertThat(dm.getFacts(TurnDelta.class)).hasSize(1);
+            }
+        } finally {
+            dm.terminate();
+        }
+    }
+
+    private static void move(final DecisionMaker dm, final Player player, final Action action, final Node... nodes) {
+        final TurnDelta.Builder delta = new TurnDelta.Builder();
+        delta.notifyOfPlayerMove(new PlayerActionEvent(player, action, nodes[0], Arrays.asList(nodes)));
+        dm.apply(delta.build());
+        dm.commit();
+        Assertions.assertThat(dm.getFacts(Worm.class).stream().map(worm -> ((Worm) worm).getNode()).collect
+                (Collectors.toList())).containsOnly(nodes).hasSize(nodes.length);
+    }
+
+    @Test
+    public void testWormFactsFollowMoves() {
+        final Player player = DecisionMakerTest.getPlayer("a");
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, player,
+                DecisionMakerTest.getGameProperties(""), null);
+        try {
+            final Node a = PLAYGROUND.getNodeAt(10, 10), b = PLAYGROUND.getNodeAt(10, 11),
+                    c = PLAYGROUND.getNodeAt(10, 12), d = PLAYGROUND.getNodeAt(10, 13);
+            DecisionMakerTest.move(dm, player, Action.NOTHING, a);
+            DecisionMakerTest.move(dm, player, Action.MOVE_UP, b, a); // grows
+            DecisionMakerTest.move(dm, player, Action.MOVE_UP, c, b, a); // grows
+            DecisionMakerTest.move(dm, player, Action.NOTHING, c, b, a); // stays
+            DecisionMakerTest.move(dm, player, Action.MOVE_UP, d, c, b); // moves
+            DecisionMakerTest.move(dm, player, Action.REVERSE, b, c, d); // turns around
+            DecisionMakerTest.move(dm, player, Action.MOVE_DOWN, a, b, c); // moves back
+        } finally {
+            dm.terminate();
+        }
+    }
+
+    @Test
+    public void testDeathRemovesWorm() {
+        final Player player = DecisionMakerTest.getPlayer("a");
+        final Player other = DecisionMakerTest.getPlayer("b");
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, player,
+                DecisionMakerTest.getGameProperties(""), null);
+        try {
+            final Node head = PLAYGROUND.getNodeAt(10, 10);
+            final TurnDelta.Builder first = new TurnDelta.Builder();
+            first.notifyOfPlayerMove(new PlayerActionEvent(player, Action.NOTHING, head,
+                    Collections.singletonList(head)));
+            first.notifyOfPlayerMove(new PlayerActionEvent(other, Action.NOTHING, PLAYGROUND.getNodeAt(5, 5),
+                    Collections.singletonList(PLAYGROUND.getNodeAt(5, 5))));
+            dm.apply(first.build());
+            dm.commit();
+            Assertions.assertThat(dm.getFacts(Worm.class)).hasSize(2);
+            final TurnDelta.Builder second = new TurnDelta.Builder();
+            second.notifyOfDeath(new PlayerDeathEvent(other));
+            final TurnDelta delta = second.build();
+            dm.apply(delta);
+            dm.commit();
+            Assertions.assertThat(dm.getFacts(Worm.class)).hasSize(1);
+            Assertions.assertThat(dm.getFacts(TurnDelta.class)).containsOnly(delta);
+        } finally {
+            dm.terminate();
+        }
+    }
+
+    @Test
+    public void testTimeBank() {
+        final DecisionMaker dm = new DecisionMaker(DecisionMakerTest.PLAYGROUND, DecisionMakerTest.getPlayer("a"),
+                DecisionMakerTest.getGameProperties("worm.timebank.millis=1000\n" +
+                        "worm.timebank.increment.millis=100\n"), null);
+        try {
+            Assertions.assertThat(dm.isTimeBankEnabled()).isTrue();
+            dm.commit();
+            Assertions.assertThat(dm.getTimeBank()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1100));
+            dm.chargeTime(TimeUnit.MILLISECONDS.toNanos(2000));
+            Assertions.assertThat(dm.getTimeBank()).isEqualTo(0L);
+            dm.commit();
+            Assertions.assertThat(dm.getTimeBank()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+            Assertions.assertThat(dm.getFacts(TimeBank.class)).hasSize(1);
+        } finally {
+            dm.terminate();
+        }
+    }
+
+}
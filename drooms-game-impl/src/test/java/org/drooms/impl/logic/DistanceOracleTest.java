@@ -0,0 +1,72 @@
+package org.drooms.impl.logic;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Node;
+import org.drooms.api.Playground;
+import org.drooms.impl.DefaultGame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class DistanceOracleTest {
+
+    private static final Playground PLAYGROUND = new DefaultGame().buildPlayground("test", DistanceOracleTest.class
+            .getResourceAsStream("testing.playground"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAllPairs() {
+        final DistanceOracle oracle = DistanceOracle.compute(DistanceOracleTest.PLAYGROUND);
+        Assertions.assertThat(oracle.isExact()).isTrue();
+        final Node start = DistanceOracleTest.PLAYGROUND.getNodeAt(10, 10);
+        final Node next = DistanceOracleTest.PLAYGROUND.getNodeAt(10, 11);
+        Assertions.assertThat(oracle.getDistance(start, start)).isEqualTo(0);
+        Assertions.assertThat(oracle.getDistance(start, next)).isEqualTo(1);
+        Assertions.assertThat(oracle.getDistance(next, start)).isEqualTo(1);
+        Assertions.assertThat(oracle.getLowerBound(start, next)).isEqualTo(1);
+        final Node wall = DistanceOracleTest.PLAYGROUND.getNodeAt(0, 0);
+        Assertions.assertThat(oracle.getDistance(start, wall)).isEqualTo(DistanceOracle.UNREACHABLE);
+        Assertions.assertThat(oracle.getDistance(start, DistanceOracleTest.PLAYGROUND.getNodeAt(-1, -1)))
+                .isEqualTo(DistanceOracle.UNREACHABLE);
+    }
+
+    @Test
+    public void testLandmarksMatchAllPairs() {
+        final DistanceOracle exact = DistanceOracle.compute(DistanceOracleTest.PLAYGROUND);
+        final DistanceOracle landmarks = DistanceOracle.compute(DistanceOracleTest.PLAYGROUND, 0);
+        Assertions.assertThat(landmarks.isExact()).isFalse();
+        final int nodeCount = DistanceOracleTest.PLAYGROUND.getNodeCount();
+        for (int from = 0; from < nodeCount; from += 7) {
+            for (int to = 0; to < nodeCount; to += 11) {
+                final int distance = exact.getDistance(from, to);
+                Assertions.assertThat(landmarks.getLowerBound(from, to)).isLessThanOrEqualTo(distance);
+                Assertions.assertThat(landmarks.getDistance(from, to)).isEqualTo(distance);
+            }
+        }
+    }
+
+    @Test
+    public void testPersisted() {
+        final File file = new File(this.folder.getRoot(), "testing.playground.distances");
+        final byte[] hash = new byte[32];
+        final DistanceOracle computed = DistanceOracle.load(DistanceOracleTest.PLAYGROUND, file, hash);
+        Assertions.assertThat(file.exists()).isTrue();
+        final long lastModified = file.lastModified();
+        final DistanceOracle loaded = DistanceOracle.load(DistanceOracleTest.PLAYGROUND, file, hash);
+        Assertions.assertThat(file.lastModified()).isEqualTo(lastModified);
+        final Node start = DistanceOracleTest.PLAYGROUND.getNodeAt(10, 10);
+        for (int id = 0; id < DistanceOracleTest.PLAYGROUND.getNodeCount(); id += 5) {
+            Assertions.assertThat(loaded.getDistance(start.getId(), id)).isEqualTo(computed.getDistance(start
+                    .getId(), id));
+        }
+        // a different playground must not reuse the file
+        hash[0] = 1;
+        final DistanceOracle recomputed = DistanceOracle.load(DistanceOracleTest.PLAYGROUND, file, hash);
+        Assertions.assertThat(recomputed.getDistance(start, start)).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.drooms.impl.logic;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class GcPauseTrackerTest {
+
+    @Test
+    public void testStopTheWorldCollectionsArePauses() {
+        Assertions.assertThat(GcPauseTracker.isPause("end of minor GC")).isTrue();
+        // also from ConcurrentMarkSweep, whose name doesn't matter
+        Assertions.assertThat(GcPauseTracker.isPause("end of major GC")).isTrue();
+    }
+
+    @Test
+    public void testConcurrentWorkIsNotPause() {
+        Assertions.assertThat(GcPauseTracker.isPause("end of GC cycle")).isFalse();
+        // but the pauses of the concurrent collectors still are
+        Assertions.assertThat(GcPauseTracker.isPause("end of GC pause")).isTrue();
+        Assertions.assertThat(GcPauseTracker.isPause("end of concurrent GC pause")).isTrue();
+    }
+
+    @Test
+    public void testSingleInstance() {
+        Assertions.assertThat(GcPauseTracker.getInstance()).isSameAs(GcPauseTracker.getInstance());
+    }
+
+    @Test
+    public void testPausesOverlappingPeriod() {
+        final GcPauseTracker tracker = new GcPauseTracker();
+        try {
+            tracker.recordPause(100, 200);
+            tracker.recordPause(300, 400);
+            Assertions.assertThat(tracker.getPausedNanos(150, 350)).isEqualTo(100L);
+            Assertions.assertThat(tracker.getPausedNanos(200, 300)).isEqualTo(0L);
+        } finally {
+            tracker.stop();
+        }
+    }
+
+}
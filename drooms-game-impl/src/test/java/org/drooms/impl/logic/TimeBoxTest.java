@@ -0,0 +1,96 @@
+package org.drooms.impl.logic;
+
+import org.assertj.core.api.Assertions;
+import org.drooms.api.Action;
+import org.drooms.api.Playground;
+import org.drooms.impl.DefaultGame;
+import org.drooms.impl.util.GameProperties;
+import org.drooms.impl.util.GameProperties.TimeoutMode;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TimeBoxTest {
+
+    private static final Playground PLAYGROUND = new DefaultGame().buildPlayground("test", PathTrackerTest.class
+            .getResourceAsStream("testing.playground"));
+
+    @Test
+    public void testWallClockExpires() throws InterruptedException {
+        final TimeBox timeBox = new TimeBox(null, TimeoutMode.WALL, TimeUnit.MILLISECONDS.toNanos(10));
+        Assertions.assertThat(timeBox.isExpired()).isFalse();
+        Thread.sleep(20);
+        Assertions.assertThat(timeBox.isExpired()).isTrue();
+        Assertions.assertThat(timeBox.getCheckInterval()).isLessThanOrEqualTo(0);
+    }
+
+    @Test
+    public void testRulesSafetyNet() throws InterruptedException {
+        final TimeBox timeBox = new TimeBox(null, TimeoutMode.RULES, TimeUnit.MILLISECONDS.toNanos(10));
+        Thread.sleep(20);
+        // the clock is only a generous safety net, the rule budget should end the decision long before
+        Assertions.assertThat(timeBox.isExpired()).isFalse();
+        Thread.sleep(10 * GameProperties.RULES_TIMEOUT_WALL_CLOCK_FACTOR);
+        Assertions.assertThat(timeBox.isExpired()).isTrue();
+        Assertions.assertThat(timeBox.isExpiredBySafetyNet()).isTrue();
+        Assertions.assertThat(new TimeBox(null, TimeoutMode.WALL, 0).isExpiredBySafetyNet()).isFalse();
+    }
+
+    @Test
+    public void testGcPauseExtendsDeadline() throws InterruptedException {
+        final GcPauseTracker gcPauses = new GcPauseTracker();
+        try {
+            final TimeBox timeBox = new TimeBox(null, TimeoutMode.WALL, TimeUnit.MILLISECONDS.toNanos(10), gcPauses);
+            final long now = System.nanoTime();
+            gcPauses.recordPause(now, now + TimeUnit.SECONDS.toNanos(10));
+            Thread.sleep(20);
+            Assertions.assertThat(timeBox.isExpired()).isFalse();
+            timeBox.close();
+            Assertions.assertThat(timeBox.getGcPauseInNanos()).isGreaterThan(0L).isLessThan(TimeUnit.SECONDS.toNanos(10));
+        } finally {
+            gcPauses.stop();
+        }
+    }
+
+    @Test
+    public void testMillisecondTimeout() {
+        final GameProperties properties = DecisionMakerTest.getGameProperties("worm.timeout.millis=50\n" +
+                "worm.timeout.mode=cpu\n");
+        Assertions.assertThat(properties.getStrategyTimeoutInMillis()).isEqualTo(50L);
+        Assertions.assertThat(properties.getTimeoutMode()).isEqualTo(TimeoutMode.CPU);
+        Assertions.assertThat(DecisionMakerTest.getGameProperties("").getStrategyTimeoutInMillis()).isEqualTo(1000L);
+    }
+
+    @Test(timeout = 60000)
+    public void testBackToBackCpuDecisions() throws Exception {
+        final long budget = TimeUnit.MILLISECONDS.toNanos(100);
+        final DecisionMaker dm = new DecisionMaker(TimeBoxTest.PLAYGROUND, DecisionMakerTest.getPlayer("a",
+                "test-strategy-thinker"), DecisionMakerTest.getGameProperties("worm.timeout.millis=100\n" +
+                "worm.timeout.mode=cpu\n"), null);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int turn = 0; turn < 3; turn++) {
+                dm.commit();
+                final TimeBox timeBox = new TimeBox(dm, TimeoutMode.CPU, budget);
+                // the previous decision used up all of its processor time, which must not end this one right away
+                Assertions.assertThat(dm.getCpuTime()).isEqualTo(0L);
+                Assertions.assertThat(timeBox.isExpired()).isFalse();
+                final Future<Action> decision = executor.submit(dm);
+                while (!timeBox.isExpired()) {
+                    Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeBox.getCheckInterval())));
+                }
+                timeBox.close();
+                dm.halt();
+                Assertions.assertThat(decision.get()).isEqualTo(Action.MOVE_LEFT);
+                Assertions.assertThat(dm.getCpuTime()).isGreaterThan(0L);
+            }
+        } finally {
+            executor.shutdownNow();
+            dm.terminate();
+        }
+    }
+
+}
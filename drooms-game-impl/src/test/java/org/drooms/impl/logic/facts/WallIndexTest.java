@@ -0,0 +1,32 @@
+package org.drooms.impl.logic.facts;
+
+import org.drooms.api.Playground;
+import org.drooms.impl.DefaultGame;
+import org.drooms.impl.logic.PathTrackerTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WallIndexTest {
+
+    private static final Playground PLAYGROUND = new DefaultGame().buildPlayground("test", PathTrackerTest.class
+            .getResourceAsStream("testing.playground"));
+
+    @Test
+    public void testMatchesPlayground() {
+        final WallIndex index = new WallIndex(WallIndexTest.PLAYGROUND);
+        for (int x = -2; x <= WallIndexTest.PLAYGROUND.getWidth() + 1; x++) {
+            for (int y = -2; y <= WallIndexTest.PLAYGROUND.getHeight() + 1; y++) {
+                Assert.assertEquals("Mismatch at " + x + ", " + y, !WallIndexTest.PLAYGROUND.isAvailable(x, y),
+                        index.isWall(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testNodes() {
+        final WallIndex index = new WallIndex(WallIndexTest.PLAYGROUND);
+        Assert.assertTrue(index.isWall(WallIndexTest.PLAYGROUND.getNodeAt(10, 15)));
+        Assert.assertFalse(index.isWall(WallIndexTest.PLAYGROUND.getNodeAt(10, 10)));
+    }
+
+}
@@ -1,6 +1,8 @@
 package org.drooms.impl.util;
 
 import org.assertj.core.api.Assertions;
+import org.drooms.api.Player;
+import org.drooms.util.KieBaseCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.kie.api.KieServices;
@@ -8,6 +10,7 @@ import org.kie.api.builder.KieRepository;
 import org.kie.api.builder.ReleaseId;
 import org.kie.api.io.Resource;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class DroomsStrategyValidatorTest {
@@ -51,6 +54,19 @@ public class DroomsStrategyValidatorTest {
                 "Global 'tracker' of type 'org.drooms.impl.logic.PathTracker' not declared.");
     }
 
+    @Test
+    public void testRegistry() {
+        final ReleaseId valid = deployArtifact("test-strategy-3.0");
+        final ReleaseId invalid = deployArtifact("test-strategy-2.0");
+        final StrategyRegistry registry = StrategyRegistry.validate(Arrays.asList(new Player("a", valid), new
+                Player("b", valid), new Player("c", invalid)), 2);
+        Assertions.assertThat(registry.size()).isEqualTo(2);
+        Assert.assertTrue(registry.getValidator(valid).isValid());
+        Assert.assertSame(registry.getKieBase(valid), KieBaseCache.getInstance().get(valid));
+        Assert.assertFalse(registry.getValidator(invalid).isValid());
+        Assert.assertNull(registry.getKieBase(invalid));
+    }
+
     private ReleaseId deployArtifact(final String jarName) {
         final KieServices ks = KieServices.Factory.get();
         final Resource resource = ks.getResources().newClassPathResource(jarName, getClass());
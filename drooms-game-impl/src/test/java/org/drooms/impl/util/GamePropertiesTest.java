@@ -0,0 +1,38 @@
+package org.drooms.impl.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class GamePropertiesTest {
+
+    private static final String COLLECTIBLES = "collectibles=cheap\ncollectible.expiration.cheap=10\n" +
+            "collectible.price.cheap=1\ncollectible.probability.cheap=0.1\n";
+
+    private static GameProperties read(final String properties) throws IOException {
+        return GameProperties.read(new ByteArrayInputStream((GamePropertiesTest.COLLECTIBLES + properties).getBytes
+                (StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    public void testTimeoutInSeconds() throws IOException {
+        final GameProperties properties = GamePropertiesTest.read("worm.timeout.seconds=3\n");
+        Assertions.assertThat(properties.getStrategyTimeoutInSeconds()).isEqualTo(3);
+        Assertions.assertThat(properties.getStrategyTimeoutInMillis()).isEqualTo(3000L);
+    }
+
+    @Test
+    public void testTimeoutInMillisRoundedUpToSeconds() throws IOException {
+        final GameProperties properties = GamePropertiesTest.read("worm.timeout.seconds=5\nworm.timeout.millis=1500\n");
+        Assertions.assertThat(properties.getStrategyTimeoutInMillis()).isEqualTo(1500L);
+        Assertions.assertThat(properties.getStrategyTimeoutInSeconds()).isEqualTo(2);
+        Assertions.assertThat(GamePropertiesTest.read("worm.timeout.millis=200\n").getStrategyTimeoutInSeconds())
+                .isEqualTo(1);
+        Assertions.assertThat(GamePropertiesTest.read("worm.timeout.millis=2000\n").getStrategyTimeoutInSeconds())
+                .isEqualTo(2);
+    }
+
+}
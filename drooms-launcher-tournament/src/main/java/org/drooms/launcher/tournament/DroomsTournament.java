@@ -4,6 +4,8 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.drooms.api.Game;
 import org.drooms.api.Player;
 import org.drooms.impl.DroomsGame;
+import org.drooms.impl.util.GameScheduler;
+import org.drooms.impl.util.StrategyRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,12 +19,28 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class DroomsTournament {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DroomsTournament.class);
 
+    private static List<Player> shuffle(final Collection<Player> players, final SplittableRandom random) {
+        final List<Player> shuffled = new ArrayList<>(players);
+        for (int i = shuffled.size() - 1; i > 0; i--) {
+            Collections.swap(shuffled, i, random.nextInt(i + 1));
+        }
+        return shuffled;
+    }
+
     public static void main(final String[] args) {
         // load the CLI
         final CLI cli = CLI.getInstance();
@@ -45,31 +63,88 @@ public class DroomsTournament {
         // load game class
         final Class<? extends Game> game = props.getGameClass();
         final Collection<Player> players = props.getPlayers();
+        // validate and compile all the strategies at once, every game will reuse them
+        final StrategyRegistry strategies = StrategyRegistry.validate(players);
         // prepare a result tracker
-        final TournamentResults result = new DroomsTournamentResults(id, players);
-        // for each playground...
-        for (final ImmutablePair<File, File> gameConfig : props.getPlaygrounds()) {
-            final String playgroundName = gameConfig.getLeft().getName();
-            // run N games on the playground
-            DroomsTournament.LOGGER.info("Starting games on playground {}.", playgroundName);
-            for (int i = 1; i <= Integer.valueOf(props.getNumberOfRunsPerPlayground()); i++) {
-                DroomsTournament.LOGGER.info("Starting game #{} on playground {}.", i, playgroundName);
-                // randomize player order
-                final List<Player> randomPlayers = new ArrayList<>(players);
-                Collections.shuffle(randomPlayers);
-                // play the game
-                final DroomsGame dg = new DroomsGame(game, gameConfig.getLeft(), randomPlayers, gameConfig.getRight(),
-                        reports);
-                result.addResults(playgroundName, dg.play(playgroundName + "_" + i));
+        final TournamentResults results = new DroomsTournamentResults(id, players);
+        // games are played in parallel on a shared scheduler, as long as there is enough heap for them
+        final GameScheduler scheduler = new GameScheduler(props.getNumberOfParallelGames());
+        final Semaphore playing = new Semaphore(props.getNumberOfParallelGames());
+        final HeapAdmission admission = new HeapAdmission();
+        // while games are being played, the next one is already being prepared in the background
+        final ExecutorService prefetch = Executors.newSingleThreadExecutor();
+        DroomsTournament.LOGGER.info("Tournament seed is {}.", props.getSeed());
+        final SplittableRandom random = new SplittableRandom(props.getSeed());
+        final List<ImmutablePair<String, CompletableFuture<Map<Player, Integer>>>> games = new ArrayList<>();
+        // the game that is being prepared, but has not started yet; games only stay reachable while being played
+        DroomsGame pending = null;
+        try {
+            // for each playground...
+            for (final ImmutablePair<File, File> gameConfig : props.getPlaygrounds()) {
+                final String playgroundName = gameConfig.getLeft().getName();
+                final long footprint = props.getGameMemoryInMegabytes() > 0 ? props.getGameMemoryInMegabytes() *
+                        1024 * 1024 : HeapAdmission.estimate(gameConfig.getRight(), players.size());
+                // run N games on the playground
+                DroomsTournament.LOGGER.info("Starting games on playground {}.", playgroundName);
+                for (int i = 1; i <= Integer.valueOf(props.getNumberOfRunsPerPlayground()); i++) {
+                    // every game gets its own generator, derived from the tournament's in the order of games
+                    final SplittableRandom gameRandom = random.split();
+                    // randomize player order
+                    final List<Player> randomPlayers = DroomsTournament.shuffle(players, gameRandom);
+                    // prepare the game
+                    final DroomsGame dg = new DroomsGame(game, gameConfig.getLeft(), randomPlayers,
+                            gameConfig.getRight(), reports, strategies);
+                    dg.setSeed(gameRandom.nextLong());
+                    final String gameName = playgroundName + "_" + i;
+                    // a prepared game takes heap already, so it needs to be admitted before it is prepared
+                    admission.acquire(footprint);
+                    // the game is prepared while the tournament waits for a free slot; no more than one game ahead
+                    pending = dg;
+                    final CompletableFuture<Void> preparation = CompletableFuture.runAsync(() -> dg.prepare
+                            (gameName), prefetch);
+                    playing.acquire();
+                    pending = null;
+                    DroomsTournament.LOGGER.info("Starting game #{} on playground {}.", i, playgroundName);
+                    final CompletableFuture<Map<Player, Integer>> result = preparation.thenCompose(done -> dg
+                            .playAsync(gameName, scheduler));
+                    result.whenComplete((points, ex) -> {
+                        admission.release(footprint);
+                        playing.release();
+                    });
+                    games.add(new ImmutablePair<>(playgroundName, result));
+                }
+            }
+            // results are collected in the order in which the games were started, no matter when they finished
+            for (final ImmutablePair<String, CompletableFuture<Map<Player, Integer>>> result : games) {
+                results.addResults(result.getLeft(), result.getRight().get());
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted.", ex);
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException("Failed playing a game.", ex.getCause());
+        } finally {
+            prefetch.shutdownNow();
+            scheduler.shutdown();
+            // a preparation still running would otherwise store its state after it has been discarded
+            try {
+                if (!prefetch.awaitTermination(1, TimeUnit.MINUTES)) {
+                    DroomsTournament.LOGGER.warn("Game preparation did not stop in time.");
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (pending != null) {
+                pending.discard();
             }
         }
         DroomsTournament.LOGGER.info("Tournament results:");
         final AtomicInteger i = new AtomicInteger(1);
-        result.evaluate().forEach((points, placed) -> {
+        results.evaluate().forEach((points, placed) -> {
             DroomsTournament.LOGGER.info("#{} with {} points: {}", i.getAndIncrement(), points, placed);
         });
         try (final BufferedWriter w = new BufferedWriter(new FileWriter(new File(reports, "report.html")))) {
-            result.write(w);
+            results.write(w);
         } catch (final IOException e) {
             // nothing to do here
         }
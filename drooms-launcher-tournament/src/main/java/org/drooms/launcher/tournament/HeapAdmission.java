@@ -0,0 +1,152 @@
+package org.drooms.launcher.tournament;
+
+import org.drooms.impl.util.GameProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether there is enough heap for another game to be started. Every game reserves its expected footprint
+ * before it starts and releases it once it's over. A game is only admitted while its footprint fits into the heap that
+ * is neither reserved by the other games nor actually in use, whichever of the two is more. Actual use is the heap that
+ * survived the most recent garbage collection, re-measured every time admission is decided, so that games taking more
+ * than they reserved hold back the next ones. A single game is always admitted, no matter how large.
+ */
+class HeapAdmission {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapAdmission.class);
+
+    private static final long MEGABYTE = 1024 * 1024;
+    /**
+     * Rough size of a player's session, including the compiled strategy's runtime structures.
+     */
+    private static final long SESSION_FOOTPRINT = 32 * HeapAdmission.MEGABYTE;
+    /**
+     * Rough size of what a single player's turn adds to the in-memory game report.
+     */
+    private static final long REPORT_FOOTPRINT_PER_TURN = 1024;
+    /**
+     * How often a waiting game checks whether garbage collection has freed enough heap for it.
+     */
+    static final long RECHECK_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Estimate the heap footprint of a game.
+     *
+     * @param gameConfig
+     *            Game configuration, to learn the maximum length of the game.
+     * @param players
+     *            How many players will take part.
+     * @return Estimate in bytes.
+     */
+    public static long estimate(final File gameConfig, final int players) {
+        int turns;
+        try (final InputStream is = new FileInputStream(gameConfig)) {
+            turns = GameProperties.read(is).getMaximumTurns();
+        } catch (final IOException ex) {
+            throw new IllegalArgumentException("Failed reading game config: " + gameConfig, ex);
+        }
+        return players * (HeapAdmission.SESSION_FOOTPRINT + turns * HeapAdmission.REPORT_FOOTPRINT_PER_TURN);
+    }
+
+    /**
+     * Heap that survived the most recent collection of every heap pool. Pools that can not tell are counted with
+     * their current usage.
+     *
+     * @return Bytes.
+     */
+    private static long getLiveHeap() {
+        long live = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            final MemoryUsage usage = pool.getCollectionUsage();
+            live += usage == null ? pool.getUsage().getUsed() : usage.getUsed();
+        }
+        return live;
+    }
+
+    private final long maxHeap;
+    private final long baseline;
+    private final LongSupplier liveHeap;
+    private long reserved = 0;
+
+    public HeapAdmission() {
+        this(Runtime.getRuntime().maxMemory(), Runtime.getRuntime().totalMemory() - Runtime.getRuntime()
+                .freeMemory(), HeapAdmission::getLiveHeap);
+    }
+
+    /**
+     * Initialize the class.
+     *
+     * @param maxHeap
+     *            Size of the heap.
+     * @param baseline
+     *            Heap in use before any game started.
+     * @param liveHeap
+     *            Measures the heap currently in use.
+     */
+    HeapAdmission(final long maxHeap, final long baseline, final LongSupplier liveHeap) {
+        this.maxHeap = maxHeap;
+        this.baseline = baseline;
+        this.liveHeap = liveHeap;
+        HeapAdmission.LOGGER.info("Games may take up to {} MB of heap.", (maxHeap - baseline) /
+                HeapAdmission.MEGABYTE);
+    }
+
+    private boolean fits(final long bytes) {
+        if (this.reserved == 0) {
+            return true;
+        }
+        final long used = Math.max(this.liveHeap.getAsLong(), this.baseline + this.reserved);
+        return used + bytes <= this.maxHeap;
+    }
+
+    /**
+     * Reserve heap for a game, waiting for other games to finish or for the garbage collector to free enough heap.
+     *
+     * @param bytes
+     *            Expected footprint of the game.
+     * @throws InterruptedException
+     *             When interrupted while waiting.
+     */
+    public synchronized void acquire(final long bytes) throws InterruptedException {
+        while (!this.fits(bytes)) {
+            HeapAdmission.LOGGER.debug("Waiting for {} MB of heap, {} MB reserved.", bytes / HeapAdmission.MEGABYTE,
+                    this.reserved / HeapAdmission.MEGABYTE);
+            this.wait(HeapAdmission.RECHECK_INTERVAL_MILLIS);
+        }
+        this.reserved += bytes;
+    }
+
+    /**
+     * Release heap previously reserved for a game.
+     *
+     * @param bytes
+     *            The same amount as was previously acquired.
+     */
+    public synchronized void release(final long bytes) {
+        this.reserved -= bytes;
+        this.notifyAll();
+    }
+
+    /**
+     * Heap currently reserved by the games.
+     *
+     * @return Bytes.
+     */
+    synchronized long getReserved() {
+        return this.reserved;
+    }
+
+}
@@ -7,6 +7,7 @@ import org.drooms.impl.util.PlayerProperties;
 import org.drooms.util.CommonProperties;
 
 import java.io.File;
+import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,6 +36,14 @@ import java.util.stream.Collectors;
  * <dl>
  * <dt>runs</dt>
  * <dd>How many times should each playground be played. Number greater than 0, default value is 1.</dd>
+ * <dt>seed</dt>
+ * <dd>Seed from which the order of players and the seeds of all the games are derived. The same seed will always result
+ * in the same tournament, as long as the strategies decide the same. Random by default.</dd>
+ * <dt>games.parallel</dt>
+ * <dd>How many games can be played at the same time. Number greater than 0, default value is 1.</dd>
+ * <dt>games.memory</dt>
+ * <dd>How many megabytes of heap a single game is expected to take. New games will only be started while the heap
+ * has room for them. When 0, the default, it is estimated from the number of players and turns.</dd>
  * <dt>folder.resources</dt>
  * <dd>Where to load all input files from, relative to the current working directory. If it doesn't exist, it is
  * created. Default value is "src/main/resources".</dd>
@@ -65,6 +74,9 @@ public class TournamentProperties extends CommonProperties {
     private final Collection<ImmutablePair<File, File>> playgrounds;
 
     private final int numberOfRunsPerPlayground;
+    private final int numberOfParallelGames;
+    private final long gameMemoryInMegabytes;
+    private final long seed;
 
     private final Collection<Player> players;
 
@@ -72,6 +84,13 @@ public class TournamentProperties extends CommonProperties {
         super(p);
         this.gameClass = TournamentProperties.getGameImpl(this.getMandatoryProperty("game.class"));
         this.numberOfRunsPerPlayground = Integer.valueOf(this.getOptionalProperty("runs", "1"));
+        this.numberOfParallelGames = Integer.valueOf(this.getOptionalProperty("games.parallel", "1"));
+        if (this.numberOfParallelGames < 1) {
+            throw new IllegalStateException("At least one game must be allowed to run at a time.");
+        }
+        this.gameMemoryInMegabytes = Long.valueOf(this.getOptionalProperty("games.memory", "0"));
+        final String seed = this.getOptionalProperty("seed", null);
+        this.seed = seed == null ? new SecureRandom().nextLong() : Long.valueOf(seed.trim());
         // prepare folders
         this.resourceFolder = new File(this.getOptionalProperty("folder.resources", "src/main/resources"));
         if (!this.resourceFolder.exists()) {
@@ -97,6 +116,19 @@ public class TournamentProperties extends CommonProperties {
         return this.gameClass;
     }
 
+    /**
+     * Expected heap footprint of a single game.
+     *
+     * @return Megabytes, or 0 if it should be estimated.
+     */
+    public long getGameMemoryInMegabytes() {
+        return this.gameMemoryInMegabytes;
+    }
+
+    public int getNumberOfParallelGames() {
+        return this.numberOfParallelGames;
+    }
+
     public int getNumberOfRunsPerPlayground() {
         return this.numberOfRunsPerPlayground;
     }
@@ -113,6 +145,10 @@ public class TournamentProperties extends CommonProperties {
         return this.resourceFolder;
     }
 
+    public long getSeed() {
+        return this.seed;
+    }
+
     public File getTargetFolder() {
         return this.targetFolder;
     }
@@ -0,0 +1,76 @@
+package org.drooms.launcher.tournament;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HeapAdmissionTest {
+
+    private static final long MAX_HEAP = 1000;
+    private static final long BASELINE = 100;
+
+    private static CompletableFuture<Void> acquireLater(final HeapAdmission admission, final long bytes) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                admission.acquire(bytes);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted.", ex);
+            }
+        });
+    }
+
+    private static void assertBlocked(final CompletableFuture<Void> acquisition) throws InterruptedException,
+            ExecutionException {
+        try {
+            acquisition.get(200, TimeUnit.MILLISECONDS);
+            Assertions.fail("Admitted a game that does not fit.");
+        } catch (final TimeoutException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSingleGameAlwaysAdmitted() throws InterruptedException {
+        final HeapAdmission admission = new HeapAdmission(HeapAdmissionTest.MAX_HEAP, HeapAdmissionTest.BASELINE,
+                () -> 0);
+        admission.acquire(10 * HeapAdmissionTest.MAX_HEAP);
+        Assertions.assertThat(admission.getReserved()).isEqualTo(10 * HeapAdmissionTest.MAX_HEAP);
+        admission.release(10 * HeapAdmissionTest.MAX_HEAP);
+        Assertions.assertThat(admission.getReserved()).isEqualTo(0L);
+    }
+
+    @Test(timeout = 10000)
+    public void testAcquireBlocksUntilRelease() throws Exception {
+        final HeapAdmission admission = new HeapAdmission(HeapAdmissionTest.MAX_HEAP, HeapAdmissionTest.BASELINE,
+                () -> 0);
+        admission.acquire(400);
+        admission.acquire(400);
+        final CompletableFuture<Void> third = HeapAdmissionTest.acquireLater(admission, 400);
+        HeapAdmissionTest.assertBlocked(third);
+        admission.release(400);
+        third.get(5, TimeUnit.SECONDS);
+        Assertions.assertThat(admission.getReserved()).isEqualTo(800L);
+    }
+
+    @Test(timeout = 10000)
+    public void testAcquireBlocksWhileHeapInUse() throws Exception {
+        // the first game takes far more heap than it has reserved
+        final AtomicLong live = new AtomicLong(950);
+        final HeapAdmission admission = new HeapAdmission(HeapAdmissionTest.MAX_HEAP, HeapAdmissionTest.BASELINE,
+                live::get);
+        admission.acquire(100);
+        final CompletableFuture<Void> second = HeapAdmissionTest.acquireLater(admission, 100);
+        HeapAdmissionTest.assertBlocked(second);
+        // garbage collection frees the heap, without any game finishing
+        live.set(200);
+        second.get(HeapAdmission.RECHECK_INTERVAL_MILLIS * 3, TimeUnit.MILLISECONDS);
+        Assertions.assertThat(admission.getReserved()).isEqualTo(200L);
+    }
+
+}